@@ -0,0 +1,56 @@
+// k6 load test for the city/country read and write paths.
+//
+// Compare the two execution modes against the same database:
+//   platform threads: java -jar target/testproject-0.0.1-SNAPSHOT.jar
+//   virtual threads:  java -jar target/testproject-0.0.1-SNAPSHOT.jar --spring.profiles.active=virtual-threads
+// then run
+//   k6 run -e BASE_URL=http://localhost:8080 -e AUTH="Basic ..." load-test/cities.js
+// and compare http_req_duration p95/p99, http_reqs and the rate of 503 responses.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const headers = __ENV.AUTH ? { Authorization: __ENV.AUTH } : {};
+const COUNTRY_CODE = __ENV.COUNTRY_CODE || 'TR';
+
+export const options = {
+    scenarios: {
+        burst: {
+            executor: 'ramping-arrival-rate',
+            startRate: 100,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+            stages: [
+                { target: 500, duration: '30s' },
+                { target: 2000, duration: '30s' },
+                { target: 2000, duration: '1m' },
+                { target: 100, duration: '30s' },
+            ],
+        },
+    },
+    thresholds: {
+        'http_req_duration{expected_response:true}': ['p(95)<500'],
+    },
+};
+
+export function setup() {
+    const body = JSON.stringify({ name: 'Load Test Country', code: COUNTRY_CODE });
+    http.post(`${BASE_URL}/countries`, body, { headers: { ...headers, 'Content-Type': 'application/json' } });
+}
+
+export default function () {
+    const roll = Math.random();
+    let res;
+    if (roll < 0.5) {
+        res = http.get(`${BASE_URL}/cities?size=20&page=${Math.floor(Math.random() * 50)}`, { headers });
+    } else if (roll < 0.7) {
+        res = http.get(`${BASE_URL}/cities/scroll?size=50`, { headers });
+    } else if (roll < 0.85) {
+        res = http.get(`${BASE_URL}/countries/by-code/${COUNTRY_CODE}`, { headers });
+    } else {
+        const body = JSON.stringify({ name: `City ${__VU}-${__ITER}`, country: { code: COUNTRY_CODE } });
+        res = http.post(`${BASE_URL}/cities`, body, { headers: { ...headers, 'Content-Type': 'application/json' } });
+    }
+    check(res, { 'not rejected': (r) => r.status !== 503 });
+}
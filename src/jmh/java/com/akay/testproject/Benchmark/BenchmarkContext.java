@@ -0,0 +1,76 @@
+package com.akay.testproject.Benchmark;
+
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.CityService;
+import com.akay.testproject.Service.CountryService;
+import com.akay.testproject.TestprojectApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against the "bench" profile (a dedicated Postgres database, cleaned and
+ * migrated on start) and seeds a dataset.
+ */
+final class BenchmarkContext {
+
+    static final int COUNTRY_COUNT = 50;
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TestprojectApplication.class)
+                .profiles(System.getProperty("bench.profiles", "bench").split(","))
+                .run();
+    }
+
+    static void seed(ConfigurableApplicationContext context, int cityCount) {
+        List<Country> countries = new ArrayList<>(COUNTRY_COUNT);
+        for (int i = 0; i < COUNTRY_COUNT; i++) {
+            countries.add(Country.builder().name("Country " + i).code(countryCode(i)).build());
+        }
+        context.getBean(CountryService.class).createCountries(countries);
+
+        CityService cityService = context.getBean(CityService.class);
+        for (int from = 0; from < cityCount; from += SEED_BATCH_SIZE) {
+            int to = Math.min(cityCount, from + SEED_BATCH_SIZE);
+            List<City> cities = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                cities.add(City.builder()
+                        .name("City " + i)
+                        .country(Country.builder().code(countryCode(i % COUNTRY_COUNT)).build())
+                        .build());
+            }
+            cityService.createCities(cities);
+        }
+    }
+
+    static String countryCode(int index) {
+        return "B" + (char) ('A' + index / 26) + (char) ('A' + index % 26);
+    }
+
+    /**
+     * Starts every trial from an empty schema, before anything loads the previous trial's rows.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @Profile("bench")
+    static class CleanDatabase {
+
+        @Bean
+        FlywayMigrationStrategy cleanMigrationStrategy() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.akay.testproject.Benchmark;
+
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.CityService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUD paths of CityService against a seeded dataset. createCity grows the table by one row per
+ * invocation, so keep its iteration count small relative to datasetSize.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CityServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int datasetSize;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private CityService cityService;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, datasetSize);
+        cityService = context.getBean(CityService.class);
+        firstId = cityService.findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<City> findAllFirstPage() {
+        return cityService.findAll(PageRequest.of(0, pageSize, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Page<City> findAllRandomPage() {
+        int page = ThreadLocalRandom.current().nextInt(datasetSize / pageSize);
+        return cityService.findAll(PageRequest.of(page, pageSize, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Page<CityView> findAllViewsRandomPage() {
+        int page = ThreadLocalRandom.current().nextInt(datasetSize / pageSize);
+        return cityService.findAllViews(PageRequest.of(page, pageSize, Sort.by("id")));
+    }
+
+    @Benchmark
+    public City createCity() {
+        return cityService.createCity(City.builder()
+                .name("Bench City")
+                .country(Country.builder().code(BenchmarkContext.countryCode(0)).build())
+                .build());
+    }
+
+    @Benchmark
+    public City updateCity() {
+        long id = firstId + ThreadLocalRandom.current().nextInt(datasetSize);
+        return cityService.updateCity(id, City.builder()
+                .name("Renamed " + id)
+                .country(Country.builder().code(BenchmarkContext.countryCode((int) (id % BenchmarkContext.COUNTRY_COUNT))).build())
+                .build());
+    }
+}
@@ -0,0 +1,61 @@
+package com.akay.testproject.Benchmark;
+
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Service.CityService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response-side cost of a city page: entity to view mapping and JSON serialization with the
+ * application's ObjectMapper. The page is loaded once, so no database work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private Page<City> cities;
+    private Page<CityView> views;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, pageSize);
+        objectMapper = context.getBean(ObjectMapper.class);
+        cities = context.getBean(CityService.class).findAll(PageRequest.of(0, pageSize, Sort.by("id")));
+        views = cities.map(CityView::from);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<CityView> mapToViews() {
+        return cities.map(CityView::from);
+    }
+
+    @Benchmark
+    public byte[] serializeCityPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cities);
+    }
+
+    @Benchmark
+    public byte[] serializeViewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(views);
+    }
+}
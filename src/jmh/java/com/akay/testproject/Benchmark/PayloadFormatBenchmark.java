@@ -0,0 +1,80 @@
+package com.akay.testproject.Benchmark;
+
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Dto.CompactCityPage;
+import com.akay.testproject.Service.CityService;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a city page in the current JSON listing shape against the compact page
+ * in JSON, Smile and CBOR, using mappers built like the application's converters. Payload sizes
+ * are printed once per trial, since JMH only reports times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadFormatBenchmark {
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    @Param({"json", "compact-json", "compact-smile", "compact-cbor"})
+    public String format;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private Object page;
+    private Class<?> pageType;
+    private byte[] encoded;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record JsonCityPage(List<CityView> content, long totalElements) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, pageSize);
+        Jackson2ObjectMapperBuilder builder = context.getBean(Jackson2ObjectMapperBuilder.class);
+        Page<CityView> views = context.getBean(CityService.class)
+                .findAll(PageRequest.of(0, pageSize, Sort.by("id"))).map(CityView::from);
+
+        mapper = switch (format) {
+            case "compact-smile" -> builder.factory(new SmileFactory()).build();
+            case "compact-cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+        page = format.equals("json") ? views : CompactCityPage.from(views);
+        pageType = format.equals("json") ? JsonCityPage.class : CompactCityPage.class;
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d cities: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(encoded, pageType);
+    }
+}
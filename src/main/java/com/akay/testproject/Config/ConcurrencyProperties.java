@@ -0,0 +1,12 @@
+package com.akay.testproject.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.concurrency")
+public record ConcurrencyProperties(int deepPageRows, double backoffRatio, Limit cheap, Limit expensive) {
+
+    public record Limit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.akay.testproject.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with primary/replica routing once at least one
+ * app.datasource.replicas entry is configured. Without replicas the application keeps the single
+ * Boot-managed pool.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty("app.datasource.replicas[0].url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                          DataSourceProperties primaryProperties,
+                                                          ReplicaProperties replicaProperties,
+                                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaProperties.Replica> configured = replicaProperties.replicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaProperties.Replica replica = configured.get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(replica.url());
+            pool.setUsername(replica.username() != null ? replica.username() : primaryProperties.getUsername());
+            pool.setPassword(replica.password() != null ? replica.password() : primaryProperties.getPassword());
+            pool.setMaximumPoolSize(replica.maximumPoolSize() != null
+                    ? replica.maximumPoolSize() : primaryDataSource.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.put(pool.getPoolName(), pool);
+        }
+        Duration maxLag = replicaProperties.maxLag() != null ? replicaProperties.maxLag() : Duration.ofSeconds(10);
+        Duration primaryAfterWrite = replicaProperties.primaryAfterWrite() != null
+                ? replicaProperties.primaryAfterWrite() : maxLag;
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, primaryAfterWrite);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReadReplicaRoutingDataSource routingDataSource) {
+        return () -> {
+            Map<String, Boolean> replicas = routingDataSource.getReplicaHealth();
+            Status status = replicas.containsValue(false) ? new Status("DEGRADED") : Status.UP;
+            return Health.status(status).withDetails(replicas).build();
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package com.akay.testproject.Config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica, round robin, and everything else to the primary.
+ * Replicas that failed the last health check, or lag more than the allowed replay delay, are skipped;
+ * with none left reads fall back to the primary. Read-your-writes is scoped to the client that wrote:
+ * once a request opens a write transaction, its remaining reads stay on the primary (cache reloads,
+ * listing tags), and a {@value #LAST_WRITE_COOKIE} cookie with the write time keeps that client's next
+ * requests there for {@code primary-after-write}. Other clients and background threads keep using
+ * the replicas. Must sit behind a LazyConnectionDataSourceProxy so the connection is taken after the transaction's
+ * read-only flag is known.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+    static final String LAST_WRITE_COOKIE = "last-write";
+
+    private static final String LAST_WRITE_ATTRIBUTE = ReadReplicaRoutingDataSource.class.getName() + ".lastWrite";
+
+    private static final String LAG_QUERY = "select case when pg_is_in_recovery() " +
+            "and pg_last_wal_receive_lsn() <> pg_last_wal_replay_lsn() " +
+            "then coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) else 0 end";
+
+    private final List<String> replicaKeys;
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Duration primaryAfterWrite;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                        Duration primaryAfterWrite) {
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.primaryAfterWrite = primaryAfterWrite;
+        this.healthyReplicas = replicaKeys;
+        Map<Object, Object> targets = new LinkedHashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                markWrite();
+            }
+            return PRIMARY;
+        }
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty() || wroteRecently()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    private void markWrite() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        attributes.setAttribute(LAST_WRITE_ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(LAST_WRITE_COOKIE, Long.toString(now))
+                    .path("/").httpOnly(true).maxAge(primaryAfterWrite).build().toString());
+        }
+    }
+
+    private boolean wroteRecently() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        if (attributes.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        Cookie cookie = WebUtils.getCookie(attributes.getRequest(), LAST_WRITE_COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            long lastWrite = Long.parseLong(cookie.getValue());
+            return System.currentTimeMillis() - lastWrite < primaryAfterWrite.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.check-interval:PT5S}")
+    public void checkReplicas() {
+        healthyReplicas = replicaKeys.stream().filter(key -> isHealthy(replicas.get(key))).toList();
+    }
+
+    public Map<String, Boolean> getReplicaHealth() {
+        List<String> healthy = healthyReplicas;
+        Map<String, Boolean> health = new LinkedHashMap<>();
+        replicaKeys.forEach(key -> health.put(key, healthy.contains(key)));
+        return health;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private boolean isHealthy(DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(1)) {
+                return false;
+            }
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                return lag.next() && lag.getDouble(1) * 1000 <= maxLag.toMillis();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.akay.testproject.Config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("app.datasource")
+public record ReplicaProperties(List<Replica> replicas, Duration checkInterval, Duration maxLag,
+                                Duration primaryAfterWrite) {
+
+    public record Replica(String url, String username, String password, Integer maximumPoolSize) {
+    }
+}
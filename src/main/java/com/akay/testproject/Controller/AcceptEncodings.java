@@ -0,0 +1,48 @@
+package com.akay.testproject.Controller;
+
+import java.util.Locale;
+
+public final class AcceptEncodings {
+
+    private AcceptEncodings() {
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows the coding. An entry naming the coding decides; without
+     * one a "*" entry does. Entries with q=0 refuse, and unparseable q-values count as refusals.
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double named = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals(coding) || name.equals("x-" + coding)) {
+                named = named == null ? quality : Math.max(named, quality);
+            } else if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double quality = named != null ? named : wildcard;
+        return quality != null && quality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
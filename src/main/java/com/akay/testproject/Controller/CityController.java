@@ -1,21 +1,65 @@
 package com.akay.testproject.Controller;
 
+import com.akay.testproject.Config.WebConfig;
+import com.akay.testproject.Dto.BoundingBox;
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Dto.CityLocation;
+import com.akay.testproject.Dto.CitySearchCriteria;
+import com.akay.testproject.Dto.CitySuggestion;
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Dto.CompactCityPage;
+import com.akay.testproject.Dto.CursorPage;
+import com.akay.testproject.Dto.DeleteResult;
+import com.akay.testproject.Dto.IngestStatus;
+import com.akay.testproject.Dto.NearbyCity;
 import com.akay.testproject.Entity.City;
+import com.akay.testproject.Service.CityExportService;
+import com.akay.testproject.Service.CityImportService;
+import com.akay.testproject.Service.CityIngestQueue;
 import com.akay.testproject.Service.CityService;
+import com.akay.testproject.Service.ImportFormat;
+import com.akay.testproject.Service.KeysetOrder;
+import com.akay.testproject.Service.TableVersions;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/cities")
 public class CityController {
 
+    private static final String PREFER = "Prefer";
+
     private final CityService cityService;
+    private final CityImportService cityImportService;
+    private final CityExportService cityExportService;
+    private final ConditionalResponses conditionalResponses;
+    private final CityIngestQueue cityIngestQueue;
 
-    public CityController(CityService cityService) {
+    public CityController(CityService cityService, CityImportService cityImportService,
+                          CityExportService cityExportService, ConditionalResponses conditionalResponses,
+                          CityIngestQueue cityIngestQueue) {
         this.cityService = cityService;
+        this.cityImportService = cityImportService;
+        this.cityExportService = cityExportService;
+        this.conditionalResponses = conditionalResponses;
+        this.cityIngestQueue = cityIngestQueue;
     }
 
     @PostMapping
@@ -24,10 +68,90 @@ public class CityController {
         return new ResponseEntity<>(createdCity, HttpStatus.CREATED);
     }
 
+    /**
+     * Queues the city when the Prefer header carries {@code respond-async} among its preferences;
+     * otherwise it is created right away.
+     */
+    @PostMapping(headers = PREFER)
+    public ResponseEntity<?> submitCity(@RequestHeader HttpHeaders headers, @RequestBody City city) {
+        if (!prefersAsync(headers.getValuesAsList(PREFER))) {
+            return createCity(city);
+        }
+        return cityIngestQueue.submit(city)
+                .map(trackingId -> ResponseEntity.accepted()
+                        .location(URI.create("/cities/ingest/" + trackingId))
+                        .body(IngestStatus.pending(trackingId)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    static boolean prefersAsync(List<String> preferences) {
+        for (String preference : preferences) {
+            // token [= value] [; parameter]...
+            String token = preference.split(";", 2)[0].split("=", 2)[0].trim();
+            if (token.equalsIgnoreCase("respond-async")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> ingestStatus(@PathVariable UUID trackingId) {
+        return cityIngestQueue.status(trackingId)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> createCities(@RequestBody List<City> cities) {
+        BulkResult result = cityService.createCities(cities);
+        return new ResponseEntity<>(result, result.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importCities(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                              InputStream body) {
+        ImportFormat format = ImportFormat.from(contentType);
+        StreamingResponseBody progress = out -> cityImportService.importCities(body, format, out);
+        return new ResponseEntity<>(progress, HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCities(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ImportFormat exportFormat = ImportFormat.fromName(format);
+        boolean gzip = AcceptEncodings.accepts(acceptEncoding, "gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024);
+                cityExportService.exportCities(exportFormat, zipped);
+                zipped.finish();
+            } else {
+                cityExportService.exportCities(exportFormat, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("cities." + exportFormat.name().toLowerCase(Locale.ROOT)).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<City> updateCity(@PathVariable Long id, @RequestBody City city) {
-        City updatedCity = cityService.updateCity(id, city);
-        return new ResponseEntity<>(updatedCity, HttpStatus.OK);
+    public ResponseEntity<City> updateCity(@PathVariable Long id, @RequestBody City city,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parseVersion(ifMatch);
+        City updatedCity = expectedVersion == null
+                ? cityService.updateCity(id, city)
+                : cityService.updateCity(id, expectedVersion, city);
+        return ResponseEntity.ok().eTag(ETags.of(updatedCity.getVersion())).body(updatedCity);
     }
 
     @DeleteMapping("/{id}")
@@ -36,9 +160,69 @@ public class CityController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @DeleteMapping
+    public ResponseEntity<DeleteResult> deleteCities(@RequestParam(required = false) String countryCode,
+                                                     @RequestParam(required = false) List<Long> ids) {
+        if ((countryCode == null) == (ids == null)) {
+            throw new IllegalArgumentException("Exactly one of countryCode or ids is required");
+        }
+        int deleted = countryCode != null
+                ? cityService.deleteCitiesByCountryCode(countryCode)
+                : cityService.deleteCities(ids);
+        return new ResponseEntity<>(new DeleteResult(deleted), HttpStatus.OK);
+    }
+
     @GetMapping
-    public ResponseEntity<Page<City>> findAllCities(Pageable pageable) {
-        Page<City> cities = cityService.findAll(pageable);
+    public ResponseEntity<Page<CityView>> findAllCities(CitySearchCriteria criteria,
+                                                        @PageableDefault(sort = "id") Pageable pageable,
+                                                        WebRequest request) {
+        return conditionalResponses.respond(request, () -> cityService.search(criteria, pageable),
+                TableVersions.Table.CITIES, TableVersions.Table.COUNTRIES);
+    }
+
+    @GetMapping(produces = {WebConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CompactCityPage> findAllCitiesCompact(CitySearchCriteria criteria,
+                                                                @PageableDefault(sort = "id") Pageable pageable,
+                                                                WebRequest request) {
+        return conditionalResponses.respond(request, WebConfig.COMPACT_MEDIA_TYPES,
+                () -> CompactCityPage.from(cityService.search(criteria, pageable)),
+                TableVersions.Table.CITIES, TableVersions.Table.COUNTRIES);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<City>> scrollCities(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "id") String sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        CursorPage<City> cities = cityService.scroll(cursor, KeysetOrder.from(sort), size);
         return new ResponseEntity<>(cities, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    /**
+     * Cities written after the {@code since} token. Call without a token to get the current head, then
+     * page through the cities and follow the feed from there.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeed<CityLocation>> findCityChanges(@RequestParam(required = false) String since,
+                                                                    @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(cityService.findChanges(since, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CitySuggestion>> suggestCities(@RequestParam String prefix,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        List<CitySuggestion> suggestions = cityService.suggest(prefix, limit);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyCity>> findNearbyCities(@RequestParam double lat, @RequestParam double lon,
+                                                             @RequestParam(defaultValue = "10") int k) {
+        return new ResponseEntity<>(cityService.findNearby(lat, lon, k), HttpStatus.OK);
+    }
+
+    @GetMapping("/within")
+    public ResponseEntity<List<CityLocation>> findCitiesWithin(@RequestParam String bbox,
+                                                               @RequestParam(defaultValue = "1000") int limit) {
+        return new ResponseEntity<>(cityService.findWithin(BoundingBox.parse(bbox), limit), HttpStatus.OK);
+    }
+}
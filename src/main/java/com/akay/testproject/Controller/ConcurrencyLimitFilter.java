@@ -0,0 +1,207 @@
+package com.akay.testproject.Controller;
+
+import com.akay.testproject.Config.ConcurrencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for the API. Requests are split into a cheap and an expensive partition, each
+ * with its own {@link AdaptiveLimit}, so deep city pages, exports and writes backing up cannot
+ * starve country lookups. Anything over the limit is answered with 503 right away instead of
+ * queueing on Tomcat or Hikari. Actuator endpoints are never limited. Any 5xx counts as a
+ * failure. Async requests such as the streaming export and import keep their permit until the async
+ * cycle ends, but do not feed the limit: they last as long as the client keeps reading.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@EnableConfigurationProperties(ConcurrencyProperties.class)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public enum Partition {
+        CHEAP, EXPENSIVE
+    }
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final Map<Partition, AdaptiveLimit> limits = new EnumMap<>(Partition.class);
+    private final Map<Partition, Counter> rejections = new EnumMap<>(Partition.class);
+    private final int deepPageRows;
+
+    public ConcurrencyLimitFilter(ConcurrencyProperties properties) {
+        this.deepPageRows = properties.deepPageRows();
+        limits.put(Partition.CHEAP, limit(properties.cheap(), properties.backoffRatio()));
+        limits.put(Partition.EXPENSIVE, limit(properties.expensive(), properties.backoffRatio()));
+    }
+
+    private static AdaptiveLimit limit(ConcurrencyProperties.Limit limit, double backoffRatio) {
+        return new AdaptiveLimit(limit.initialLimit(), limit.minLimit(), limit.maxLimit(),
+                limit.latencyThreshold(), backoffRatio);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return path(request).startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Partition partition = partitionOf(request);
+        AdaptiveLimit limit = limits.get(partition);
+        if (!limit.tryAcquire()) {
+            Counter rejected = rejections.get(partition);
+            if (rejected != null) {
+                rejected.increment();
+            }
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        Permit permit = new Permit(limit, System.nanoTime());
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // streaming bodies run after this returns, so the permit stays taken until they finish
+                request.getAsyncContext().addListener(permit, request, response);
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permit.release(failed(response));
+            }
+        }
+    }
+
+    private static boolean failed(HttpServletResponse response) {
+        return response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    /**
+     * One admitted request; released exactly once, by the filter or by the async listener.
+     */
+    private static final class Permit implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveLimit limit, long startNanos) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+        }
+
+        void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(startNanos, System.nanoTime(), failed);
+            }
+        }
+
+        void releaseUnsampled() {
+            if (released.compareAndSet(false, true)) {
+                limit.releaseUnsampled();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            releaseUnsampled();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            releaseUnsampled();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            releaseUnsampled();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Writes, exports and list pages reaching past {@code deep-page-rows} are expensive; everything
+     * else, keyset scrolls included, is cheap.
+     */
+    Partition partitionOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return Partition.EXPENSIVE;
+        }
+        String path = path(request);
+        if (path.equals("/cities/export")) {
+            return Partition.EXPENSIVE;
+        }
+        if (path.equals("/cities") || path.equals("/countries")) {
+            long page = intParameter(request, "page", 0);
+            long size = intParameter(request, "size", DEFAULT_PAGE_SIZE);
+            if ((page + 1) * size > deepPageRows) {
+                return Partition.EXPENSIVE;
+            }
+        }
+        return Partition.CHEAP;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static int intParameter(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limits.forEach((partition, limit) -> {
+            String tag = partition.name().toLowerCase();
+            Gauge.builder("app.concurrency.in.flight", limit, AdaptiveLimit::getInFlight)
+                    .tag("partition", tag).register(registry);
+            Gauge.builder("app.concurrency.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("partition", tag).register(registry);
+            rejections.put(partition, Counter.builder("app.concurrency.rejected")
+                    .tag("partition", tag).register(registry));
+        });
+    }
+
+    public AdaptiveLimit getLimit(Partition partition) {
+        return limits.get(partition);
+    }
+
+    public int getInFlight() {
+        return limits.values().stream().mapToInt(AdaptiveLimit::getInFlight).sum();
+    }
+}
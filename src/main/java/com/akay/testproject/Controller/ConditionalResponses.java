@@ -0,0 +1,105 @@
+package com.akay.testproject.Controller;
+
+import com.akay.testproject.Service.TableVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GETs for listings from the table versions the database keeps. The validators
+ * and the body are read in one repeatable-read transaction, so the tag always describes the body that
+ * goes out with it, whichever replica serves the read. A 304 costs that single version query.
+ * Listings are negotiated on Accept, so every response varies by it and each representation of the
+ * same data gets its own tag, derived from the media type actually written. Shared caches have to
+ * revalidate every time by default.
+ */
+@Component
+public class ConditionalResponses {
+
+    private final TableVersions tableVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheControl cacheControl;
+
+    public ConditionalResponses(TableVersions tableVersions, PlatformTransactionManager transactionManager,
+                                @Value("${app.http-cache.max-age:0s}") Duration maxAge,
+                                @Value("${app.http-cache.shared-max-age:0s}") Duration sharedMaxAge) {
+        this.tableVersions = tableVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.cacheControl = CacheControl.maxAge(maxAge).sMaxAge(sharedMaxAge).cachePublic().mustRevalidate();
+    }
+
+    public <T> ResponseEntity<T> respond(WebRequest request, Supplier<T> body, TableVersions.Table... tables) {
+        return respond(request, (MediaType) null, body, tables);
+    }
+
+    /**
+     * For handlers producing more than one media type: picks the one the Accept header prefers, writes
+     * the body as that type and tags it with its own suffix, e.g. "-smile" or "-cbor".
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, List<MediaType> producible, Supplier<T> body,
+                                         TableVersions.Table... tables) {
+        return respond(request, negotiate(request.getHeader(HttpHeaders.ACCEPT), producible), body, tables);
+    }
+
+    private <T> ResponseEntity<T> respond(WebRequest request, MediaType contentType, Supplier<T> body,
+                                          TableVersions.Table... tables) {
+        return transactionTemplate.execute(status -> {
+            TableVersions.Validators validators = tableVersions.current(tables);
+            String eTag = "W/\"" + validators.tag() + (contentType == null ? "" : "-" + suffix(contentType)) + "\"";
+            Instant lastModified = validators.lastModified();
+            if (request.checkNotModified(eTag, lastModified.toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.ACCEPT).<T>build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .eTag(eTag)
+                    .lastModified(lastModified);
+            if (contentType != null) {
+                response.contentType(contentType);
+            }
+            return response.body(body.get());
+        });
+    }
+
+    static MediaType negotiate(String accept, List<MediaType> producible) {
+        if (accept != null && !accept.isBlank()) {
+            List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+            for (MediaType acceptable : accepted) {
+                if (acceptable.getQualityValue() > 0) {
+                    for (MediaType candidate : producible) {
+                        if (acceptable.isCompatibleWith(candidate)) {
+                            return candidate;
+                        }
+                    }
+                }
+            }
+        }
+        return producible.get(0);
+    }
+
+    // application/x-jackson-smile -> smile, application/cbor -> cbor
+    private static String suffix(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return subtype.substring(subtype.lastIndexOf('-') + 1);
+    }
+}
@@ -1,12 +1,30 @@
 package com.akay.testproject.Controller;
 
+import com.akay.testproject.Config.WebConfig;
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Dto.CompactCountryPage;
+import com.akay.testproject.Dto.CountryCacheStats;
+import com.akay.testproject.Dto.CountryCityCount;
+import com.akay.testproject.Dto.CountryStats;
+import com.akay.testproject.Dto.CountrySearchCriteria;
+import com.akay.testproject.Dto.CursorPage;
+import com.akay.testproject.Dto.RebuildResult;
 import com.akay.testproject.Entity.Country;
 import com.akay.testproject.Service.CountryService;
+import com.akay.testproject.Service.KeysetOrder;
+import com.akay.testproject.Service.TableVersions;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 
 @RestController
@@ -14,9 +32,11 @@ import org.springframework.web.bind.annotation.*;
 public class CountryController {
 
     private final CountryService countryService;
+    private final ConditionalResponses conditionalResponses;
 
-    public CountryController(CountryService countryService) {
+    public CountryController(CountryService countryService, ConditionalResponses conditionalResponses) {
         this.countryService = countryService;
+        this.conditionalResponses = conditionalResponses;
     }
 
     @PostMapping
@@ -25,21 +45,96 @@ public class CountryController {
         return new ResponseEntity<>(createdCountry, HttpStatus.CREATED);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> createCountries(@RequestBody List<Country> countries) {
+        BulkResult result = countryService.createCountries(countries);
+        return new ResponseEntity<>(result, result.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Country> updateCountry(@PathVariable Long id, @RequestBody Country country) {
-        Country updatedCountry = countryService.updateCountry(id, country);
-        return new ResponseEntity<>(updatedCountry, HttpStatus.OK);
+    public ResponseEntity<Country> updateCountry(@PathVariable Long id, @RequestBody Country country,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parseVersion(ifMatch);
+        Country updatedCountry = expectedVersion == null
+                ? countryService.updateCountry(id, country)
+                : countryService.updateCountry(id, expectedVersion, country);
+        return ResponseEntity.ok().eTag(ETags.of(updatedCountry.getVersion())).body(updatedCountry);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCountry(@PathVariable Long id) {
-        countryService.deleteCountry(id);
+    public ResponseEntity<Void> deleteCountry(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "false") boolean cascade) {
+        if (cascade) {
+            countryService.deleteCountryWithCities(id);
+        } else {
+            countryService.deleteCountry(id);
+        }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @GetMapping
-    public ResponseEntity<Page<Country>> findAllCountries(Pageable pageable) {
-        Page<Country> countries = countryService.findAll(pageable);
+    public ResponseEntity<Page<Country>> findAllCountries(CountrySearchCriteria criteria,
+                                                          @PageableDefault(sort = "id") Pageable pageable,
+                                                          WebRequest request) {
+        return conditionalResponses.respond(request, () -> countryService.search(criteria, pageable),
+                TableVersions.Table.COUNTRIES);
+    }
+
+    @GetMapping(produces = {WebConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CompactCountryPage> findAllCountriesCompact(CountrySearchCriteria criteria,
+                                                                      @PageableDefault(sort = "id") Pageable pageable,
+                                                                      WebRequest request) {
+        return conditionalResponses.respond(request, WebConfig.COMPACT_MEDIA_TYPES,
+                () -> CompactCountryPage.from(countryService.search(criteria, pageable)),
+                TableVersions.Table.COUNTRIES);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<Country>> scrollCountries(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "id") String sort,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Country> countries = countryService.scroll(cursor, KeysetOrder.from(sort), size);
+        return new ResponseEntity<>(countries, HttpStatus.OK);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeed<Country>> findCountryChanges(@RequestParam(required = false) String since,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(countryService.findChanges(since, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/by-code/{code}")
+    public ResponseEntity<Country> findCountryByCode(@PathVariable String code) {
+        return countryService.findByCode(code)
+                .map(country -> new ResponseEntity<>(country, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/by-code")
+    public ResponseEntity<List<Country>> findCountriesByCode(@RequestParam List<String> codes) {
+        List<Country> countries = countryService.findAllByCode(codes);
         return new ResponseEntity<>(countries, HttpStatus.OK);
     }
+
+    @GetMapping("/{id}/city-count")
+    public ResponseEntity<CountryCityCount> findCityCount(@PathVariable Long id) {
+        return countryService.findCityCount(id)
+                .map(count -> new ResponseEntity<>(count, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<CountryStats> stats(@RequestParam(defaultValue = "10") int top) {
+        return new ResponseEntity<>(countryService.stats(top), HttpStatus.OK);
+    }
+
+    @PostMapping("/city-count/rebuild")
+    public ResponseEntity<RebuildResult> rebuildCityCounts() {
+        return new ResponseEntity<>(new RebuildResult(countryService.rebuildCityCounts()), HttpStatus.OK);
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CountryCacheStats> cacheStats() {
+        return new ResponseEntity<>(countryService.cacheStats(), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,45 @@
+package com.akay.testproject.Dto;
+
+/**
+ * Longitude/latitude box in degrees. A box whose minLon is greater than its maxLon crosses the antimeridian.
+ */
+public record BoundingBox(double minLon, double minLat, double maxLon, double maxLat) {
+
+    public BoundingBox {
+        if (!(minLat >= -90 && maxLat <= 90 && minLat <= maxLat)) {
+            throw new IllegalArgumentException("Latitudes must satisfy -90 <= minLat <= maxLat <= 90");
+        }
+        if (!(minLon >= -180 && minLon <= 180 && maxLon >= -180 && maxLon <= 180)) {
+            throw new IllegalArgumentException("Longitudes must be between -180 and 180");
+        }
+    }
+
+    /**
+     * Parses {@code minLon,minLat,maxLon,maxLat}, the order GeoJSON uses.
+     */
+    public static BoundingBox parse(String bbox) {
+        String[] parts = bbox == null ? new String[0] : bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        try {
+            return new BoundingBox(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+    }
+
+    public boolean crossesAntimeridian() {
+        return minLon > maxLon;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLat || latitude > maxLat) {
+            return false;
+        }
+        return crossesAntimeridian()
+                ? longitude >= minLon || longitude <= maxLon
+                : longitude >= minLon && longitude <= maxLon;
+    }
+}
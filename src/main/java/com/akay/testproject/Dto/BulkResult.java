@@ -0,0 +1,18 @@
+package com.akay.testproject.Dto;
+
+import java.util.List;
+
+public record BulkResult(int total, int written, int failed, List<ChunkResult> chunks) {
+
+    public static BulkResult of(List<ChunkResult> chunks) {
+        int total = 0;
+        int written = 0;
+        int failed = 0;
+        for (ChunkResult chunk : chunks) {
+            total += chunk.size();
+            written += chunk.written();
+            failed += chunk.failed();
+        }
+        return new BulkResult(total, written, failed, chunks);
+    }
+}
@@ -0,0 +1,14 @@
+package com.akay.testproject.Dto;
+
+import java.time.Instant;
+
+/**
+ * Latest change to one row within a feed batch. {@code current} is the row as it is now and is only
+ * set for upserts.
+ */
+public record Change<T>(long id, Type type, Instant changedAt, T current) {
+
+    public enum Type {
+        UPSERT, DELETE
+    }
+}
@@ -0,0 +1,10 @@
+package com.akay.testproject.Dto;
+
+import java.util.List;
+
+/**
+ * One batch of a change feed. {@code next} is passed back as {@code since} to continue; while
+ * {@code hasMore} is set the following batch can be requested right away.
+ */
+public record ChangeFeed<T>(List<Change<T>> changes, String next, boolean hasMore) {
+}
@@ -0,0 +1,12 @@
+package com.akay.testproject.Dto;
+
+public record ChunkResult(int chunk, int size, int written, int failed, String error) {
+
+    public static ChunkResult written(int chunk, int size) {
+        return new ChunkResult(chunk, size, size, 0, null);
+    }
+
+    public static ChunkResult failed(int chunk, int size, String error) {
+        return new ChunkResult(chunk, size, 0, size, error);
+    }
+}
@@ -0,0 +1,8 @@
+package com.akay.testproject.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public record CityExportRow(Long id, String name, String countryCode,
+                            @JsonInclude(JsonInclude.Include.NON_NULL) Double latitude,
+                            @JsonInclude(JsonInclude.Include.NON_NULL) Double longitude) {
+}
@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record CityImportRow(String name, String countryCode, Double latitude, Double longitude) {
+}
@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record CityLocation(Long id, String name, String countryCode, Double latitude, Double longitude) {
+}
@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record CityPoint(Long id, Double latitude, Double longitude) {
+}
@@ -0,0 +1,8 @@
+package com.akay.testproject.Dto;
+
+public record CitySearchCriteria(String countryCode, String namePrefix, Long minId, Long maxId) {
+
+    public boolean isEmpty() {
+        return countryCode == null && namePrefix == null && minId == null && maxId == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.akay.testproject.Dto;
+
+import com.akay.testproject.Entity.City;
+
+public record CityView(Long cityId, String cityName, String countryCode) {
+
+    public static CityView from(City city) {
+        return new CityView(city.getId(), city.getName(), city.getCountry() == null ? null : city.getCountry().getCode());
+    }
+}
@@ -0,0 +1,43 @@
+package com.akay.testproject.Dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * City page for the binary encodings. Each country code is written once in {@code countries} and
+ * rows refer to it by index; rows are positional arrays, so no field name is repeated per city.
+ */
+public record CompactCityPage(List<String> countries, List<Row> cities, int number, int size, long totalElements) {
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "name", "country"})
+    public record Row(Long id, String name, Integer country) {
+    }
+
+    public static CompactCityPage from(Page<CityView> page) {
+        List<String> countries = new ArrayList<>();
+        Map<String, Integer> indexes = new HashMap<>();
+        List<Row> cities = new ArrayList<>(page.getNumberOfElements());
+        for (CityView city : page) {
+            Integer country = city.countryCode() == null ? null
+                    : indexes.computeIfAbsent(city.countryCode(), code -> {
+                        countries.add(code);
+                        return countries.size() - 1;
+                    });
+            cities.add(new Row(city.cityId(), city.cityName(), country));
+        }
+        return new CompactCityPage(countries, cities, page.getNumber(), page.getSize(), page.getTotalElements());
+    }
+
+    public List<CityView> toViews() {
+        return cities.stream()
+                .map(row -> new CityView(row.id(), row.name(), row.country() == null ? null : countries.get(row.country())))
+                .toList();
+    }
+}
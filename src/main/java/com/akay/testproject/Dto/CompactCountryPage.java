@@ -0,0 +1,26 @@
+package com.akay.testproject.Dto;
+
+import com.akay.testproject.Entity.Country;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Country page for the binary encodings, with positional rows instead of one object per country.
+ */
+public record CompactCountryPage(List<Row> countries, int number, int size, long totalElements) {
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "code", "name", "version"})
+    public record Row(Long id, String code, String name, Long version) {
+    }
+
+    public static CompactCountryPage from(Page<Country> page) {
+        List<Row> countries = page.stream()
+                .map(country -> new Row(country.getId(), country.getCode(), country.getName(), country.getVersion()))
+                .toList();
+        return new CompactCountryPage(countries, page.getNumber(), page.getSize(), page.getTotalElements());
+    }
+}
@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record CountryCacheStats(long size, long hits, long misses, long evictions, double hitRate) {
+}
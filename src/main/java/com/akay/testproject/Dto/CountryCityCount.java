@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record CountryCityCount(Long countryId, String countryCode, String countryName, long cityCount) {
+}
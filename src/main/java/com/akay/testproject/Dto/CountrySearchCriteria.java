@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record CountrySearchCriteria(String code, String namePrefix, Long minId, Long maxId) {
+}
@@ -0,0 +1,6 @@
+package com.akay.testproject.Dto;
+
+import java.util.List;
+
+public record CountryStats(long countries, long cities, List<CountryCityCount> top) {
+}
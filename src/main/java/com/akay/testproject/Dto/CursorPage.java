@@ -0,0 +1,19 @@
+package com.akay.testproject.Dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> content, int size, String nextCursor) {
+
+    /**
+     * Builds a page from a query that fetched one row more than requested; the extra row only
+     * tells whether a next page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, rows.size(), null);
+        }
+        List<T> content = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(content, size, cursorOf.apply(content.get(size - 1)));
+    }
+}
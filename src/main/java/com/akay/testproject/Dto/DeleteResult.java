@@ -0,0 +1,4 @@
+package com.akay.testproject.Dto;
+
+public record DeleteResult(int deleted) {
+}
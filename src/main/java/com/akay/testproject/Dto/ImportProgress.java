@@ -0,0 +1,7 @@
+package com.akay.testproject.Dto;
+
+import java.util.List;
+
+public record ImportProgress(int chunk, int written, int failed, long totalWritten, long totalFailed,
+                             List<String> errors, boolean done) {
+}
@@ -0,0 +1,22 @@
+package com.akay.testproject.Dto;
+
+import java.util.UUID;
+
+public record IngestStatus(UUID trackingId, State state, Long cityId, String error) {
+
+    public enum State {
+        PENDING, WRITTEN, FAILED
+    }
+
+    public static IngestStatus pending(UUID trackingId) {
+        return new IngestStatus(trackingId, State.PENDING, null, null);
+    }
+
+    public static IngestStatus written(UUID trackingId, Long cityId) {
+        return new IngestStatus(trackingId, State.WRITTEN, cityId, null);
+    }
+
+    public static IngestStatus failed(UUID trackingId, String error) {
+        return new IngestStatus(trackingId, State.FAILED, null, error);
+    }
+}
@@ -0,0 +1,5 @@
+package com.akay.testproject.Dto;
+
+public record NearbyCity(Long id, String name, String countryCode, double latitude, double longitude,
+                         double distanceKm) {
+}
@@ -6,17 +6,22 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "cities")
+@Table(name = "cities", indexes = {
+        @Index(name = "ix_cities_name_id", columnList = "name, id"),
+        @Index(name = "ix_cities_country_id_name", columnList = "country_id, name")
+})
 
 public class City {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "city_seq")
+    @SequenceGenerator(name = "city_seq", sequenceName = "cities_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -24,4 +29,13 @@ public class City {
     @ManyToOne
     @JoinColumn(name = "country_id")
     private Country country;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
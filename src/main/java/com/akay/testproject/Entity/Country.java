@@ -1,23 +1,39 @@
 package com.akay.testproject.Entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "countries")
+@Table(name = "countries", indexes = {
+        @Index(name = "ux_countries_code", columnList = "code", unique = true),
+        @Index(name = "ix_countries_name_id", columnList = "name, id")
+})
 
 public class Country {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "country_seq")
+    @SequenceGenerator(name = "country_seq", sequenceName = "countries_seq", allocationSize = 50)
     public Long id;
 
     private String name;
     private String code;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "city_count", nullable = false, insertable = false, updatable = false)
+    private long cityCount;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
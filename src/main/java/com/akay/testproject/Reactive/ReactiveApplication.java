@@ -0,0 +1,29 @@
+package com.akay.testproject.Reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Non-blocking (WebFlux + R2DBC) variant of the /cities and /countries API, run as its own process
+ * next to the MVC application against the same database. Configured by reactive.yml, not
+ * application.yml. Start it from the packaged jar with:
+ * <pre>
+ * java -Dloader.main=com.akay.testproject.Reactive.ReactiveApplication \
+ *      -cp target/testproject-0.0.1-SNAPSHOT.jar org.springframework.boot.loader.launch.PropertiesLauncher
+ * </pre>
+ * Everything in this package is conditional on a reactive web application, so the MVC application's
+ * component scan skips it.
+ */
+@SpringBootApplication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive")
+                .run(args);
+    }
+}
@@ -0,0 +1,59 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Controller.ETags;
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Service.KeysetOrder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/cities")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCityController {
+
+    private final ReactiveCityService cityService;
+
+    public ReactiveCityController(ReactiveCityService cityService) {
+        this.cityService = cityService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<City>> createCity(@RequestBody City city) {
+        return cityService.createCity(city)
+                .map(createdCity -> new ResponseEntity<>(createdCity, HttpStatus.CREATED));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<City>> updateCity(@PathVariable Long id, @RequestBody City city,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parseVersion(ifMatch);
+        return cityService.updateCity(id, expectedVersion, city)
+                .map(updatedCity -> ResponseEntity.ok().eTag(ETags.of(updatedCity.getVersion())).body(updatedCity));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCity(@PathVariable Long id) {
+        return cityService.deleteCity(id).thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Page<CityView>>> findAllCities(@RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(defaultValue = "id") String sort) {
+        return cityService.findAll(page, size, KeysetOrder.from(sort))
+                .map(cities -> new ResponseEntity<>(cities, HttpStatus.OK));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CityView> streamCities() {
+        return cityService.streamAll();
+    }
+}
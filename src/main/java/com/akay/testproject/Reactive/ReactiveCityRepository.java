@@ -0,0 +1,121 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Service.KeysetOrder;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCityRepository {
+
+    private static final String SELECT_VIEWS = "select c.id, c.name, co.code from cities c " +
+            "left join countries co on co.id = c.country_id ";
+
+    /**
+     * The city a write touched, with the country it belonged to before the write.
+     */
+    public record CityRef(Long id, Long countryId, Long version) {
+    }
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCityRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<CityView> findViews(KeysetOrder order, long offset, int limit) {
+        String orderBy = order == KeysetOrder.NAME ? "order by c.name, c.id " : "order by c.id ";
+        return databaseClient.sql(SELECT_VIEWS + orderBy + "limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveCityRepository::toView)
+                .all();
+    }
+
+    public Flux<CityView> findViewsAfterId(long afterId, int limit) {
+        return databaseClient.sql(SELECT_VIEWS + "where c.id > :afterId order by c.id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveCityRepository::toView)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("select count(*) from cities")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("select count(*) from cities where id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class) > 0)
+                .one();
+    }
+
+    public Mono<Long> insert(String name, Long countryId, Double latitude, Double longitude) {
+        return bindNullable(databaseClient
+                        .sql("insert into cities (id, name, country_id, latitude, longitude, version) " +
+                                "values (nextval('cities_seq'), :name, :countryId, :latitude, :longitude, 0) returning id"),
+                name, countryId, latitude, longitude)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Updates the city, only at the expected version when one is given. Empty when no row matched.
+     */
+    public Mono<CityRef> update(Long id, Long expectedVersion, String name, Long countryId,
+                                Double latitude, Double longitude) {
+        String versionCheck = expectedVersion == null ? "" : " and version = :version";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("with previous as (select country_id from cities where id = :id" + versionCheck + ") " +
+                        "update cities set name = :name, country_id = :countryId, latitude = :latitude, " +
+                        "longitude = :longitude, version = version + 1 " +
+                        "where id = :id" + versionCheck + " " +
+                        "returning id, (select country_id from previous) as country_id, version")
+                .bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return bindNullable(spec, name, countryId, latitude, longitude)
+                .map(ReactiveCityRepository::toRef)
+                .one();
+    }
+
+    public Mono<CityRef> deleteById(Long id) {
+        return databaseClient.sql("delete from cities where id = :id returning id, country_id, version")
+                .bind("id", id)
+                .map(ReactiveCityRepository::toRef)
+                .one();
+    }
+
+    public Mono<Long> deleteByCountryId(Long countryId) {
+        return databaseClient.sql("delete from cities where country_id = :countryId")
+                .bind("countryId", countryId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                 String name, Long countryId,
+                                                                 Double latitude, Double longitude) {
+        spec = name == null ? spec.bindNull("name", String.class) : spec.bind("name", name);
+        spec = countryId == null ? spec.bindNull("countryId", Long.class) : spec.bind("countryId", countryId);
+        spec = latitude == null ? spec.bindNull("latitude", Double.class) : spec.bind("latitude", latitude);
+        return longitude == null ? spec.bindNull("longitude", Double.class) : spec.bind("longitude", longitude);
+    }
+
+    private static CityView toView(Readable row) {
+        return new CityView(row.get("id", Long.class), row.get("name", String.class), row.get("code", String.class));
+    }
+
+    private static CityRef toRef(Readable row) {
+        return new CityRef(row.get("id", Long.class), row.get("country_id", Long.class), row.get("version", Long.class));
+    }
+}
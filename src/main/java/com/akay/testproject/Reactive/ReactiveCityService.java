@@ -0,0 +1,151 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.GeoPoints;
+import com.akay.testproject.Service.KeysetOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCityService {
+
+    private final ReactiveCityRepository cityRepository;
+    private final ReactiveCountryRepository countryRepository;
+    private final int streamChunkSize;
+
+    public ReactiveCityService(ReactiveCityRepository cityRepository, ReactiveCountryRepository countryRepository,
+                               @Value("${app.reactive.stream-chunk-size:500}") int streamChunkSize) {
+        this.cityRepository = cityRepository;
+        this.countryRepository = countryRepository;
+        this.streamChunkSize = streamChunkSize;
+    }
+
+    public Mono<Page<CityView>> findAll(int page, int size, KeysetOrder order) {
+        PageRequest pageable = ReactivePages.request(page, size, order);
+        return Mono.zip(cityRepository.findViews(order, pageable.getOffset(), pageable.getPageSize()).collectList(),
+                        cityRepository.count())
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+
+    /**
+     * Streams every city in id order. Rows are read in keyset chunks, at most one chunk ahead of what
+     * the subscriber has consumed, and each chunk query returns its connection to the pool, so a slow
+     * client holds no connection while it drains what it already has.
+     */
+    public Flux<CityView> streamAll() {
+        return chunkAfter(0L)
+                .expand(chunk -> chunk.size() < streamChunkSize
+                        ? Mono.empty()
+                        : chunkAfter(chunk.get(chunk.size() - 1).cityId()))
+                .concatMapIterable(Function.identity(), 1);
+    }
+
+    private Mono<List<CityView>> chunkAfter(long afterId) {
+        // expand subscribes to the next chunk before it is requested, and the query takes its connection
+        // on subscribe; hide() stops Reactor from running the scalar flatMap eagerly, so it waits for demand
+        return Mono.just(afterId).hide()
+                .flatMap(after -> cityRepository.findViewsAfterId(after, streamChunkSize).collectList());
+    }
+
+    @Transactional
+    public Mono<City> createCity(City city) {
+        return validateLocation(city).then(Mono.defer(() -> resolveCountry(city.getCountry()))).flatMap(country ->
+                cityRepository.insert(city.getName(), idOf(country), city.getLatitude(), city.getLongitude())
+                        .flatMap(id -> adjustCityCount(idOf(country), 1)
+                                .thenReturn(City.builder().id(id).name(city.getName())
+                                        .country(country.orElse(null)).latitude(city.getLatitude())
+                                        .longitude(city.getLongitude()).version(0L).build())));
+    }
+
+    @Transactional
+    public Mono<City> updateCity(Long id, Long expectedVersion, City cityDetails) {
+        return validateLocation(cityDetails).then(Mono.defer(() -> resolveCountry(cityDetails.getCountry()))).flatMap(country ->
+                cityRepository.update(id, expectedVersion, cityDetails.getName(), idOf(country),
+                                cityDetails.getLatitude(), cityDetails.getLongitude())
+                        .switchIfEmpty(Mono.defer(() -> notUpdated(id, expectedVersion)))
+                        .flatMap(updated -> moveCityCount(updated.countryId(), idOf(country))
+                                .thenReturn(City.builder().id(id).name(cityDetails.getName())
+                                        .country(country.orElse(null)).latitude(cityDetails.getLatitude())
+                                        .longitude(cityDetails.getLongitude()).version(updated.version()).build())));
+    }
+
+    @Transactional
+    public Mono<Void> deleteCity(Long id) {
+        return cityRepository.deleteById(id)
+                .flatMap(deleted -> adjustCityCount(deleted.countryId(), -1))
+                .then();
+    }
+
+    private static Mono<Void> validateLocation(City city) {
+        return Mono.fromRunnable(() -> GeoPoints.validate(city.getLatitude(), city.getLongitude()));
+    }
+
+    private Mono<ReactiveCityRepository.CityRef> notUpdated(Long id, Long expectedVersion) {
+        return cityRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                ? new OptimisticLockingFailureException("City " + id + " is no longer at version " + expectedVersion)
+                : new RuntimeException("City not found with id " + id)));
+    }
+
+    private Mono<Optional<Country>> resolveCountry(Country country) {
+        if (country == null) {
+            return Mono.just(Optional.empty());
+        }
+        if (country.getId() != null) {
+            return countryRepository.findById(country.getId())
+                    .map(Optional::of)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Country not found with id " + country.getId())));
+        }
+        if (country.getCode() != null) {
+            return countryRepository.findByCode(country.getCode())
+                    .map(Optional::of)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Country not found with code " + country.getCode())));
+        }
+        return Mono.just(Optional.of(country));
+    }
+
+    private Mono<Void> moveCityCount(Long fromCountryId, Long toCountryId) {
+        if (Objects.equals(fromCountryId, toCountryId)) {
+            return Mono.empty();
+        }
+        // same lock order as the MVC service, so moves from either application cannot deadlock
+        Map<Long, Long> deltas = new TreeMap<>();
+        if (fromCountryId != null) {
+            deltas.put(fromCountryId, -1L);
+        }
+        if (toCountryId != null) {
+            deltas.put(toCountryId, 1L);
+        }
+        return Flux.fromIterable(deltas.entrySet())
+                .concatMap(delta -> adjustCityCount(delta.getKey(), delta.getValue()))
+                .then();
+    }
+
+    private Mono<Void> adjustCityCount(Long countryId, long delta) {
+        if (countryId == null || delta == 0) {
+            return Mono.empty();
+        }
+        return countryRepository.addToCityCount(countryId, delta).then();
+    }
+
+    private static Long idOf(Optional<Country> country) {
+        return country.map(Country::getId).orElse(null);
+    }
+}
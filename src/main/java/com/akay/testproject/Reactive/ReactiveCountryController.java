@@ -0,0 +1,53 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Controller.ETags;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.KeysetOrder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/countries")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCountryController {
+
+    private final ReactiveCountryService countryService;
+
+    public ReactiveCountryController(ReactiveCountryService countryService) {
+        this.countryService = countryService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Country>> createCountry(@RequestBody Country country) {
+        return countryService.createCountry(country)
+                .map(createdCountry -> new ResponseEntity<>(createdCountry, HttpStatus.CREATED));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Country>> updateCountry(@PathVariable Long id, @RequestBody Country country,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parseVersion(ifMatch);
+        return countryService.updateCountry(id, expectedVersion, country)
+                .map(updatedCountry -> ResponseEntity.ok().eTag(ETags.of(updatedCountry.getVersion())).body(updatedCountry));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCountry(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "false") boolean cascade) {
+        Mono<?> deletion = cascade ? countryService.deleteCountryWithCities(id) : countryService.deleteCountry(id);
+        return deletion.then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Page<Country>>> findAllCountries(@RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "20") int size,
+                                                                @RequestParam(defaultValue = "id") String sort) {
+        return countryService.findAll(page, size, KeysetOrder.from(sort))
+                .map(countries -> new ResponseEntity<>(countries, HttpStatus.OK));
+    }
+}
@@ -0,0 +1,113 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.KeysetOrder;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCountryRepository {
+
+    private static final String SELECT_COUNTRIES = "select id, name, code, version from countries ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCountryRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Country> findPage(KeysetOrder order, long offset, int limit) {
+        String orderBy = order == KeysetOrder.NAME ? "order by name, id " : "order by id ";
+        return databaseClient.sql(SELECT_COUNTRIES + orderBy + "limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveCountryRepository::toCountry)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("select count(*) from countries")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Country> findById(Long id) {
+        return databaseClient.sql(SELECT_COUNTRIES + "where id = :id")
+                .bind("id", id)
+                .map(ReactiveCountryRepository::toCountry)
+                .one();
+    }
+
+    public Mono<Country> findByCode(String code) {
+        return databaseClient.sql(SELECT_COUNTRIES + "where code = :code")
+                .bind("code", code)
+                .map(ReactiveCountryRepository::toCountry)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return findById(id).hasElement();
+    }
+
+    public Mono<Long> insert(String name, String code) {
+        return bindNullable(databaseClient
+                        .sql("insert into countries (id, name, code, city_count, version) " +
+                                "values (nextval('countries_seq'), :name, :code, 0, 0) returning id"),
+                name, code)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Updates the country, only at the expected version when one is given. Emits the new version,
+     * empty when no row matched.
+     */
+    public Mono<Long> update(Long id, Long expectedVersion, String name, String code) {
+        String versionCheck = expectedVersion == null ? "" : " and version = :version";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("update countries set name = :name, code = :code, version = version + 1 " +
+                        "where id = :id" + versionCheck + " returning version")
+                .bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return bindNullable(spec, name, code)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from countries where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> addToCityCount(Long id, long delta) {
+        return databaseClient.sql("update countries set city_count = city_count + :delta where id = :id")
+                .bind("delta", delta)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                 String name, String code) {
+        spec = name == null ? spec.bindNull("name", String.class) : spec.bind("name", name);
+        return code == null ? spec.bindNull("code", String.class) : spec.bind("code", code);
+    }
+
+    private static Country toCountry(Readable row) {
+        return Country.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .code(row.get("code", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.KeysetOrder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCountryService {
+
+    private final ReactiveCountryRepository countryRepository;
+    private final ReactiveCityRepository cityRepository;
+
+    public ReactiveCountryService(ReactiveCountryRepository countryRepository, ReactiveCityRepository cityRepository) {
+        this.countryRepository = countryRepository;
+        this.cityRepository = cityRepository;
+    }
+
+    public Mono<Page<Country>> findAll(int page, int size, KeysetOrder order) {
+        PageRequest pageable = ReactivePages.request(page, size, order);
+        return Mono.zip(countryRepository.findPage(order, pageable.getOffset(), pageable.getPageSize()).collectList(),
+                        countryRepository.count())
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+
+    public Mono<Country> createCountry(Country country) {
+        return countryRepository.insert(country.getName(), country.getCode())
+                .map(id -> Country.builder().id(id).name(country.getName()).code(country.getCode()).version(0L).build());
+    }
+
+    public Mono<Country> updateCountry(Long id, Long expectedVersion, Country countryDetails) {
+        return countryRepository.update(id, expectedVersion, countryDetails.getName(), countryDetails.getCode())
+                .switchIfEmpty(Mono.defer(() -> countryRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                        ? new OptimisticLockingFailureException("Country " + id + " is no longer at version " + expectedVersion)
+                        : new RuntimeException("Country not found with id " + id)))))
+                .map(version -> Country.builder().id(id).name(countryDetails.getName())
+                        .code(countryDetails.getCode()).version(version).build());
+    }
+
+    public Mono<Void> deleteCountry(Long id) {
+        return countryRepository.deleteById(id).then();
+    }
+
+    @Transactional
+    public Mono<Long> deleteCountryWithCities(Long id) {
+        return cityRepository.deleteByCountryId(id)
+                .flatMap(deletedCities -> countryRepository.deleteById(id)
+                        .flatMap(deleted -> deleted == 0
+                                ? Mono.<Long>error(new RuntimeException("Country not found with id " + id))
+                                : Mono.just(deletedCities)));
+    }
+}
@@ -0,0 +1,18 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Service.KeysetOrder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+final class ReactivePages {
+
+    static final int MAX_PAGE_SIZE = 2000;
+
+    private ReactivePages() {
+    }
+
+    static PageRequest request(int page, int size, KeysetOrder order) {
+        Sort sort = order == KeysetOrder.NAME ? Sort.by("name", "id") : Sort.by("id");
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), sort);
+    }
+}
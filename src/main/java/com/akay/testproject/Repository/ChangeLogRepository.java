@@ -0,0 +1,76 @@
+package com.akay.testproject.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Native access to {@code change_log}, which is filled by triggers on cities and countries. Transaction ids are {@code xid8} in the database and travel as
+ * longs here; there is no entity because Hibernate cannot validate that column type.
+ */
+@Repository
+public class ChangeLogRepository {
+
+    public record Entry(long txid, long seq, long entityId, String operation, Instant changedAt) {
+    }
+
+    public record Position(long txid, long seq) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Entries after the position from transactions that finished before any still running one began.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Entry> findAfter(String tableName, long txid, long seq, int limit) {
+        List<Object[]> rows = entityManager.createNativeQuery("select cast(cast(txid as text) as bigint), seq, " +
+                        "entity_id, operation, changed_at from change_log " +
+                        "where table_name = :tableName and (txid, seq) > (cast(cast(:txid as text) as xid8), :seq) " +
+                        "and txid < pg_snapshot_xmin(pg_current_snapshot()) " +
+                        "order by txid, seq limit :limit")
+                .setParameter("tableName", tableName)
+                .setParameter("txid", txid)
+                .setParameter("seq", seq)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new Entry(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), (String) row[3], (Instant) row[4]))
+                .toList();
+    }
+
+    /**
+     * Oldest transaction still running as of this statement's snapshot; everything before it is final.
+     */
+    public long findSnapshotXmin() {
+        return ((Number) entityManager.createNativeQuery(
+                        "select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)")
+                .getSingleResult()).longValue();
+    }
+
+    public Position findHorizon() {
+        Object[] row = (Object[]) entityManager.createNativeQuery(
+                        "select cast(cast(txid as text) as bigint), seq from change_log_horizon where id = 1")
+                .getSingleResult();
+        return new Position(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+
+    /**
+     * Deletes entries written before the cutoff and moves the horizon past the last one removed.
+     */
+    public int deleteOlderThan(Instant cutoff) {
+        return ((Number) entityManager.createNativeQuery("with purged as (" +
+                        "delete from change_log where changed_at < :cutoff returning txid, seq), " +
+                        "last_purged as (select txid, seq from purged order by txid desc, seq desc limit 1), " +
+                        "moved as (update change_log_horizon h set txid = l.txid, seq = l.seq from last_purged l " +
+                        "where h.id = 1 and (l.txid, l.seq) > (h.txid, h.seq) returning 1) " +
+                        "select count(*) from purged")
+                .setParameter("cutoff", cutoff)
+                .getSingleResult()).intValue();
+    }
+}
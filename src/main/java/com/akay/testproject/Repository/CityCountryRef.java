@@ -0,0 +1,16 @@
+package com.akay.testproject.Repository;
+
+/**
+ * A city id with the country and location it had before the write, as returned by the RETURNING
+ * clauses of bulk writes.
+ */
+public interface CityCountryRef {
+
+    Long getId();
+
+    Long getCountryId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
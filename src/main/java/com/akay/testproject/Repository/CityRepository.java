@@ -1,10 +1,103 @@
 package com.akay.testproject.Repository;
 
+import com.akay.testproject.Dto.CityExportRow;
+import com.akay.testproject.Dto.CityLocation;
+import com.akay.testproject.Dto.CityPoint;
+import com.akay.testproject.Dto.CitySuggestion;
+import com.akay.testproject.Dto.CityView;
 import com.akay.testproject.Entity.City;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CityRepository extends JpaRepository<City, Long> , JpaSpecificationExecutor<City> {
+
+    @Override
+    @EntityGraph(attributePaths = "country")
+    Page<City> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "country")
+    Page<City> findAll(Specification<City> spec, Pageable pageable);
+
+    @Query(value = "select new com.akay.testproject.Dto.CityView(c.id, c.name, co.code) from City c left join c.country co",
+            countQuery = "select count(c) from City c")
+    Page<CityView> findAllViews(Pageable pageable);
+
+    /**
+     * Forward-only cursor over every city; must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.akay.testproject.Dto.CityExportRow(c.id, c.name, co.code, c.latitude, c.longitude) " +
+            "from City c left join c.country co order by c.id")
+    Stream<CityExportRow> streamExportRows();
+
+    @Transactional
+    @Query(value = "with previous as (select country_id, latitude, longitude from cities where id = :id and version = :version) " +
+            "update cities set name = :name, country_id = :countryId, latitude = :latitude, longitude = :longitude, " +
+            "version = version + 1 where id = :id and version = :version " +
+            "returning id, (select country_id from previous) as countryId, " +
+            "(select latitude from previous) as latitude, (select longitude from previous) as longitude", nativeQuery = true)
+    List<CityCountryRef> updateIfVersion(Long id, Long version, String name, Long countryId, Double latitude,
+                                         Double longitude);
+
+    @Transactional
+    @Query(value = "delete from cities where id = :id returning id, country_id as countryId, latitude, longitude",
+            nativeQuery = true)
+    List<CityCountryRef> deleteByIdReturningCountry(Long id);
+
+    @Transactional
+    @Query(value = "delete from cities where country_id = :countryId " +
+            "returning id, country_id as countryId, latitude, longitude", nativeQuery = true)
+    List<CityCountryRef> deleteByCountryIdReturningIds(Long countryId);
+
+    @Transactional
+    @Query(value = "delete from cities where id in (:ids) returning id, country_id as countryId, latitude, longitude",
+            nativeQuery = true)
+    List<CityCountryRef> deleteByIdInReturningIds(Collection<Long> ids);
+
+    @Query("select new com.akay.testproject.Dto.CitySuggestion(c.id, c.name) from City c where c.id > :id order by c.id")
+    List<CitySuggestion> findNamesAfterId(Long id, Limit limit);
+
+    @Query("select new com.akay.testproject.Dto.CityPoint(c.id, c.latitude, c.longitude) from City c " +
+            "where c.id > :id and c.latitude is not null order by c.id")
+    List<CityPoint> findPointsAfterId(Long id, Limit limit);
+
+    @Query("select new com.akay.testproject.Dto.CityLocation(c.id, c.name, co.code, c.latitude, c.longitude) " +
+            "from City c left join c.country co where c.id in :ids")
+    List<CityLocation> findLocationsByIdIn(Collection<Long> ids);
+
+    @Query("select c from City c left join fetch c.country order by c.id")
+    List<City> findFirstOrderById(Limit limit);
+
+    @Query("select c from City c left join fetch c.country where c.id > :id order by c.id")
+    List<City> findAfterOrderById(Long id, Limit limit);
+
+    @Query("select c from City c left join fetch c.country order by c.name nulls last, c.id")
+    List<City> findFirstOrderByName(Limit limit);
+
+    // only reaches named rows; the service continues with the unnamed ones, which sort last
+    @Query("select c from City c left join fetch c.country where (c.name, c.id) > (:name, :id) order by c.name, c.id")
+    List<City> findAfterOrderByName(String name, Long id, Limit limit);
+
+    @Query("select c from City c left join fetch c.country where c.name is null and c.id > :id order by c.id")
+    List<City> findUnnamedAfterId(Long id, Limit limit);
 }
@@ -0,0 +1,27 @@
+package com.akay.testproject.Repository;
+
+import com.akay.testproject.Entity.City;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class CitySpecifications {
+
+    private CitySpecifications() {
+    }
+
+    public static Specification<City> hasCountryId(Long countryId) {
+        return (root, query, cb) -> cb.equal(root.get("country").get("id"), countryId);
+    }
+
+    public static Specification<City> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("name"), LikePatterns.prefix(prefix), LikePatterns.ESCAPE);
+    }
+
+    public static Specification<City> idBetween(Long minId, Long maxId) {
+        return (root, query, cb) -> {
+            if (minId != null && maxId != null) {
+                return cb.between(root.get("id"), minId, maxId);
+            }
+            return minId != null ? cb.ge(root.get("id"), minId) : cb.le(root.get("id"), maxId);
+        };
+    }
+}
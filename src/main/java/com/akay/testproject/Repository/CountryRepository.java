@@ -1,12 +1,86 @@
 package com.akay.testproject.Repository;
 
+import com.akay.testproject.Dto.CountryCityCount;
 import com.akay.testproject.Entity.Country;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Long> , JpaSpecificationExecutor<Country> {
+
+    Optional<Country> findByCode(String code);
+
+    List<Country> findAllByCodeIn(Collection<String> codes);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Country c set c.name = :name, c.code = :code, c.version = c.version + 1 " +
+            "where c.id = :id and c.version = :version")
+    int updateIfVersion(Long id, Long version, String name, String code);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Country c where c.id = :id")
+    int bulkDeleteById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update Country c set c.cityCount = c.cityCount + :delta where c.id = :id")
+    int addToCityCount(Long id, long delta);
+
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('city-count-rebuild'))", nativeQuery = true)
+    boolean tryLockCityCountRebuild();
+
+    /**
+     * Locks the next countries' counters the way city writers do, without blocking city inserts, which
+     * only need a key share lock on the country.
+     */
+    @Query(value = "select id from countries where id > :afterId order by id limit :limit for no key update",
+            nativeQuery = true)
+    List<Long> lockCountersAfterId(Long afterId, int limit);
+
+    @Modifying
+    @Query(value = "update countries c set city_count = counted.city_count " +
+            "from (select co.id, (select count(*) from cities ci where ci.country_id = co.id) as city_count " +
+            "from countries co where co.id in (:ids)) counted " +
+            "where c.id = counted.id and c.city_count <> counted.city_count", nativeQuery = true)
+    int recountCities(Collection<Long> ids);
+
+    @Query("select new com.akay.testproject.Dto.CountryCityCount(c.id, c.code, c.name, c.cityCount) " +
+            "from Country c where c.id = :id")
+    Optional<CountryCityCount> findCityCountById(Long id);
+
+    @Query("select new com.akay.testproject.Dto.CountryCityCount(c.id, c.code, c.name, c.cityCount) " +
+            "from Country c order by c.cityCount desc, c.id")
+    List<CountryCityCount> findTopByCityCount(Limit limit);
+
+    @Query("select coalesce(sum(c.cityCount), 0) from Country c")
+    long sumCityCounts();
+
+    @Query("select c from Country c order by c.id")
+    List<Country> findFirstOrderById(Limit limit);
+
+    @Query("select c from Country c where c.id > :id order by c.id")
+    List<Country> findAfterOrderById(Long id, Limit limit);
+
+    @Query("select c from Country c order by c.name nulls last, c.id")
+    List<Country> findFirstOrderByName(Limit limit);
+
+    // only reaches named rows; the service continues with the unnamed ones, which sort last
+    @Query("select c from Country c where (c.name, c.id) > (:name, :id) order by c.name, c.id")
+    List<Country> findAfterOrderByName(String name, Long id, Limit limit);
+
+    @Query("select c from Country c where c.name is null and c.id > :id order by c.id")
+    List<Country> findUnnamedAfterId(Long id, Limit limit);
 }
@@ -0,0 +1,27 @@
+package com.akay.testproject.Repository;
+
+import com.akay.testproject.Entity.Country;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class CountrySpecifications {
+
+    private CountrySpecifications() {
+    }
+
+    public static Specification<Country> hasCode(String code) {
+        return (root, query, cb) -> cb.equal(root.get("code"), code);
+    }
+
+    public static Specification<Country> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("name"), LikePatterns.prefix(prefix), LikePatterns.ESCAPE);
+    }
+
+    public static Specification<Country> idBetween(Long minId, Long maxId) {
+        return (root, query, cb) -> {
+            if (minId != null && maxId != null) {
+                return cb.between(root.get("id"), minId, maxId);
+            }
+            return minId != null ? cb.ge(root.get("id"), minId) : cb.le(root.get("id"), maxId);
+        };
+    }
+}
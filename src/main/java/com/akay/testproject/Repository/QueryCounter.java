@@ -0,0 +1,80 @@
+package com.akay.testproject.Repository;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts prepared SQL statements and loaded entities on the current thread between {@link #start()}
+ * and {@link #stop()}. Registered once per session factory, so it only keeps thread-local state.
+ * {@link #record()} also keeps the statements' SQL, for tests that inspect what Hibernate actually sent.
+ */
+public class QueryCounter implements StatementInspector, Interceptor {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    public static Counts start() {
+        return start(null);
+    }
+
+    public static Counts record() {
+        return start(new ArrayList<>());
+    }
+
+    private static Counts start(List<String> sql) {
+        Counts counts = new Counts(sql);
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+            if (counts.sql != null) {
+                counts.sql.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+        return false;
+    }
+
+    public static final class Counts {
+
+        private final List<String> sql;
+        private int statements;
+        private int entityLoads;
+
+        private Counts(List<String> sql) {
+            this.sql = sql;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getEntityLoads() {
+            return entityLoads;
+        }
+
+        public List<String> getSql() {
+            return sql == null ? List.of() : List.copyOf(sql);
+        }
+    }
+}
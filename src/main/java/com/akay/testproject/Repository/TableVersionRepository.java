@@ -0,0 +1,31 @@
+package com.akay.testproject.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Native access to {@code table_versions}, which triggers on cities and countries bump at commit.
+ */
+@Repository
+public class TableVersionRepository {
+
+    public record Row(String tableName, long version, Instant lastModified) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    public List<Row> findAll() {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "select table_name, version, last_modified from table_versions")
+                .getResultList();
+        return rows.stream()
+                .map(row -> new Row((String) row[0], ((Number) row[1]).longValue(), (Instant) row[2]))
+                .toList();
+    }
+}
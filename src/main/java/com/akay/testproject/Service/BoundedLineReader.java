@@ -0,0 +1,77 @@
+package com.akay.testproject.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines like {@link java.io.BufferedReader#readLine()}, but refuses to buffer a line longer than
+ * the limit, so a body without line breaks cannot grow the heap without bound.
+ */
+final class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+    private long lineNumber;
+
+    BoundedLineReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * The next line without its terminator, or null at the end of input.
+     *
+     * @throws IllegalArgumentException if the line is longer than the limit
+     */
+    String readLine() throws IOException {
+        StringBuilder line = null;
+        while (true) {
+            if (position == limit) {
+                int read = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                limit = Math.max(read, 0);
+                if (read < 0) {
+                    if (line == null) {
+                        return null;
+                    }
+                    lineNumber++;
+                    return line.toString();
+                }
+                continue;
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                position++;
+            }
+            if (line == null) {
+                line = new StringBuilder();
+            }
+            if (line.length() + position - start > maxLineLength) {
+                throw new IllegalArgumentException("Line " + (lineNumber + 1) + " is longer than "
+                        + maxLineLength + " characters");
+            }
+            line.append(buffer, start, position - start);
+            if (position < limit) {
+                skipLineFeed = buffer[position] == '\r';
+                position++;
+                lineNumber++;
+                return line.toString();
+            }
+        }
+    }
+
+    long lineNumber() {
+        return lineNumber;
+    }
+}
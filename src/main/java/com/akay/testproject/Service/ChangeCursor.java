@@ -0,0 +1,32 @@
+package com.akay.testproject.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the change log, after the entry written as {@code seq} by transaction {@code txid},
+ * serialized as an opaque URL-safe token.
+ */
+public record ChangeCursor(long txid, long seq) implements Comparable<ChangeCursor> {
+
+    public String encode() {
+        String raw = txid + ":" + seq;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            return new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid change token " + token);
+        }
+    }
+
+    @Override
+    public int compareTo(ChangeCursor other) {
+        int byTxid = Long.compare(txid, other.txid);
+        return byTxid != 0 ? byTxid : Long.compare(seq, other.seq);
+    }
+}
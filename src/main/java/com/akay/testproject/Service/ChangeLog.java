@@ -0,0 +1,109 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.Change;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Repository.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serves the rows that triggers on cities and countries record in the writing transaction back in
+ * commit-safe order, so consumers can sync incrementally. The triggers see every writer, the reactive
+ * app included. Entries older than {@code app.change-log.retention} are purged; tokens from before
+ * the purge are rejected.
+ */
+@Component
+public class ChangeLog {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final Duration retention;
+
+    public ChangeLog(ChangeLogRepository changeLogRepository,
+                     @Value("${app.change-log.retention:7d}") Duration retention) {
+        this.changeLogRepository = changeLogRepository;
+        this.retention = retention;
+    }
+
+    /**
+     * Changes after {@code since}, oldest first and with only the latest entry kept per row. Without a
+     * token nothing is returned, only the current head to start from. Everything runs on one snapshot,
+     * so the rows loaded for upserts are at least as new as the entries that name them.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public <T> ChangeFeed<T> read(TableVersions.Table table, String since, int limit,
+                                  Function<Collection<Long>, Map<Long, T>> loader) {
+        ChangeCursor head = new ChangeCursor(changeLogRepository.findSnapshotXmin(), 0);
+        if (since == null) {
+            return new ChangeFeed<>(List.of(), head.encode(), false);
+        }
+        ChangeCursor after = ChangeCursor.decode(since);
+        ChangeLogRepository.Position horizon = changeLogRepository.findHorizon();
+        if (after.compareTo(new ChangeCursor(horizon.txid(), horizon.seq())) < 0) {
+            throw new ChangeTokenExpiredException(since);
+        }
+        int size = Math.max(1, Math.min(limit, MAX_BATCH_SIZE));
+        List<ChangeLogRepository.Entry> entries =
+                changeLogRepository.findAfter(table.name(), after.txid(), after.seq(), size + 1);
+        boolean hasMore = entries.size() > size;
+        ChangeCursor next;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+            ChangeLogRepository.Entry last = entries.get(size - 1);
+            next = new ChangeCursor(last.txid(), last.seq());
+        } else {
+            // every finished transaction has been read, so skipping ahead to the head is safe and keeps
+            // idle consumers from falling behind retention
+            next = after.compareTo(head) < 0 ? head : after;
+        }
+        return new ChangeFeed<>(toChanges(entries, loader), next.encode(), hasMore);
+    }
+
+    private static <T> List<Change<T>> toChanges(List<ChangeLogRepository.Entry> entries,
+                                                 Function<Collection<Long>, Map<Long, T>> loader) {
+        Map<Long, ChangeLogRepository.Entry> latest = new LinkedHashMap<>();
+        List<Long> upserted = new ArrayList<>();
+        for (ChangeLogRepository.Entry entry : entries) {
+            latest.remove(entry.entityId());
+            latest.put(entry.entityId(), entry);
+        }
+        latest.values().forEach(entry -> {
+            if (Change.Type.UPSERT.name().equals(entry.operation())) {
+                upserted.add(entry.entityId());
+            }
+        });
+        Map<Long, T> current = upserted.isEmpty() ? Map.of() : loader.apply(upserted);
+        List<Change<T>> changes = new ArrayList<>(latest.size());
+        for (ChangeLogRepository.Entry entry : latest.values()) {
+            T row = current.get(entry.entityId());
+            // an upserted row that is gone now was deleted by a transaction the log does not show yet
+            Change.Type type = row == null ? Change.Type.DELETE : Change.Type.UPSERT;
+            changes.add(new Change<>(entry.entityId(), type, entry.changedAt(), row));
+        }
+        return changes;
+    }
+
+    @Transactional
+    @Scheduled(cron = "${app.change-log.purge-cron:0 30 3 * * *}")
+    public int purge() {
+        return purgeOlderThan(Instant.now().minus(retention));
+    }
+
+    @Transactional
+    public int purgeOlderThan(Instant cutoff) {
+        return changeLogRepository.deleteOlderThan(cutoff);
+    }
+}
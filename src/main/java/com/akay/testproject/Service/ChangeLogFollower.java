@@ -0,0 +1,115 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.Change;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Dto.CityLocation;
+import com.akay.testproject.Dto.CityPoint;
+import com.akay.testproject.Entity.Country;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies writes made outside this instance (other instances, the reactive app, plain SQL) to the
+ * in-memory city indexes and the country cache by following the change log. Local writes are applied
+ * right after commit as well; seeing them again here is harmless. The positions are taken before the
+ * indexes load at startup, so nothing written during the load is missed. If a position falls behind
+ * retention, what depends on it is rebuilt or cleared.
+ */
+@Component
+public class ChangeLogFollower {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogFollower.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final CityService cityService;
+    private final CountryService countryService;
+    private final CityGeoIndex cityGeoIndex;
+    private final CityNameIndex cityNameIndex;
+    private final CountryCache countryCache;
+    private String citiesSince;
+    private String countriesSince;
+
+    public ChangeLogFollower(CityService cityService, CountryService countryService, CityGeoIndex cityGeoIndex,
+                             CityNameIndex cityNameIndex, CountryCache countryCache) {
+        this.cityService = cityService;
+        this.countryService = countryService;
+        this.cityGeoIndex = cityGeoIndex;
+        this.cityNameIndex = cityNameIndex;
+        this.countryCache = countryCache;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        citiesSince = cityService.findChanges(null, 1).next();
+        countriesSince = countryService.findChanges(null, 1).next();
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-log.follow-interval:PT2S}")
+    public synchronized void follow() {
+        if (citiesSince == null) {
+            return;
+        }
+        followCities();
+        followCountries();
+    }
+
+    private void followCities() {
+        try {
+            ChangeFeed<CityLocation> feed;
+            do {
+                feed = cityService.findChanges(citiesSince, BATCH_SIZE);
+                applyCities(feed.changes());
+                citiesSince = feed.next();
+            } while (feed.hasMore());
+        } catch (ChangeTokenExpiredException e) {
+            log.warn("City change log position expired, rebuilding the city indexes");
+            citiesSince = cityService.findChanges(null, 1).next();
+            cityGeoIndex.rebuild();
+            cityNameIndex.rebuild();
+        }
+    }
+
+    private void followCountries() {
+        try {
+            ChangeFeed<Country> feed;
+            do {
+                feed = countryService.findChanges(countriesSince, BATCH_SIZE);
+                feed.changes().forEach(change -> countryCache.invalidate(change.id()));
+                countriesSince = feed.next();
+            } while (feed.hasMore());
+        } catch (ChangeTokenExpiredException e) {
+            log.warn("Country change log position expired, clearing the country cache");
+            countriesSince = countryService.findChanges(null, 1).next();
+            countryCache.invalidateAll();
+        }
+    }
+
+    private void applyCities(List<Change<CityLocation>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Long> deleted = new ArrayList<>();
+        List<CityPoint> points = new ArrayList<>();
+        for (Change<CityLocation> change : changes) {
+            if (change.type() == Change.Type.DELETE) {
+                deleted.add(change.id());
+            } else {
+                CityLocation city = change.current();
+                points.add(new CityPoint(city.id(), city.latitude(), city.longitude()));
+                cityNameIndex.put(city.id(), city.name());
+            }
+        }
+        cityGeoIndex.replace(deleted, points);
+        cityNameIndex.removeAll(deleted);
+    }
+}
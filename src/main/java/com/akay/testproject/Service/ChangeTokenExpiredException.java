@@ -0,0 +1,11 @@
+package com.akay.testproject.Service;
+
+/**
+ * The change log no longer holds everything after the given token; the consumer has to resync.
+ */
+public class ChangeTokenExpiredException extends RuntimeException {
+
+    public ChangeTokenExpiredException(String token) {
+        super("Changes after " + token + " are no longer retained");
+    }
+}
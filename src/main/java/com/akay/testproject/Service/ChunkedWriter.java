@@ -0,0 +1,59 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.ChunkResult;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits bulk writes into fixed-size chunks and commits each chunk in its own transaction,
+ * so a bad row only rolls back its chunk and Hibernate can send every chunk as JDBC batches.
+ * The persistence context is flushed and cleared after every chunk, which keeps memory bounded
+ * even when an open-in-view entity manager outlives the individual transactions.
+ */
+@Component
+public class ChunkedWriter {
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public ChunkedWriter(TransactionTemplate transactionTemplate, EntityManager entityManager,
+                         @Value("${app.bulk.chunk-size:1000}") int chunkSize) {
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public <T> BulkResult write(List<T> items, Consumer<List<T>> writer) {
+        List<ChunkResult> chunks = new ArrayList<>();
+        for (int from = 0, index = 0; from < items.size(); from += chunkSize, index++) {
+            List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            chunks.add(writeChunk(index, chunk, writer));
+        }
+        return BulkResult.of(chunks);
+    }
+
+    public <T> ChunkResult writeChunk(int index, List<T> chunk, Consumer<List<T>> writer) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writer.accept(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            return ChunkResult.written(index, chunk.size());
+        } catch (RuntimeException e) {
+            return ChunkResult.failed(index, chunk.size(), e.getMessage());
+        }
+    }
+}
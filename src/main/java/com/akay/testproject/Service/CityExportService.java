@@ -0,0 +1,71 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.CityExportRow;
+import com.akay.testproject.Repository.CityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every city as NDJSON or CSV, in the shapes /cities/import reads back, straight off a
+ * forward-only cursor. Rows are read as DTOs, so nothing accumulates in the persistence context
+ * and memory stays flat whatever the table size.
+ */
+@Service
+@Timed("app.service")
+public class CityExportService {
+
+    private static final String CSV_HEADER = "name,countryCode,id,latitude,longitude";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CityRepository cityRepository;
+    private final ObjectMapper objectMapper;
+
+    public CityExportService(CityRepository cityRepository, ObjectMapper objectMapper) {
+        this.cityRepository = cityRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportCities(ImportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ImportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long exported = 0;
+        try (Stream<CityExportRow> rows = cityRepository.streamExportRows()) {
+            Iterator<CityExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.write(toLine(iterator.next(), format));
+                writer.write('\n');
+                exported++;
+            }
+        }
+        writer.flush();
+        return exported;
+    }
+
+    private String toLine(CityExportRow row, ImportFormat format) throws IOException {
+        if (format == ImportFormat.NDJSON) {
+            return objectMapper.writeValueAsString(row);
+        }
+        return CsvLines.format(row.name(), row.countryCode(), String.valueOf(row.id()),
+                plain(row.latitude()), plain(row.longitude()));
+    }
+
+    private static String plain(Double coordinate) {
+        return coordinate == null ? null : BigDecimal.valueOf(coordinate).toPlainString();
+    }
+}
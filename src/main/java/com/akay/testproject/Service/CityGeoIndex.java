@@ -0,0 +1,417 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.BoundingBox;
+import com.akay.testproject.Dto.CityPoint;
+import com.akay.testproject.Repository.CityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * In-memory grid index over city coordinates for nearest-neighbour and bounding-box lookups.
+ * <p>
+ * The globe is cut into square cells of {@code cell-degrees}; each cell is an immutable block of parallel
+ * id and coordinate arrays that a write replaces as a whole, so lookups read without locks. Only ids and
+ * float coordinates are kept, about 16 bytes per city; callers load names for the ids a lookup returns.
+ * Nearest-neighbour search visits rings of cells around the query point and stops once no cell outside
+ * the visited rings can be closer than the k-th candidate. Writes made while a rebuild loads the table
+ * are replayed onto the new grid before it replaces the old one. Writes made elsewhere reach the grid
+ * through {@link ChangeLogFollower}.
+ */
+@Component
+public class CityGeoIndex {
+
+    public record Neighbour(long id, double distanceKm) {
+    }
+
+    private static final Comparator<Neighbour> FARTHEST_FIRST =
+            Comparator.comparingDouble(Neighbour::distanceKm).reversed();
+
+    private final CityRepository cityRepository;
+    private final int buildBatchSize;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private volatile AtomicReferenceArray<Cell> grid;
+    private List<Consumer<AtomicReferenceArray<Cell>>> journal;
+
+    public CityGeoIndex(CityRepository cityRepository,
+                        @Value("${app.geo.cell-degrees:1.0}") double cellDegrees,
+                        @Value("${app.geo.build-batch-size:10000}") int buildBatchSize) {
+        this.rows = (int) Math.round(180 / cellDegrees);
+        if (rows < 1 || Math.abs(rows * cellDegrees - 180) > 1e-9) {
+            throw new IllegalArgumentException("app.geo.cell-degrees must divide 180");
+        }
+        this.cityRepository = cityRepository;
+        this.buildBatchSize = buildBatchSize;
+        this.cellDegrees = cellDegrees;
+        this.columns = 2 * rows;
+        this.grid = new AtomicReferenceArray<>(rows * columns);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            journal = new ArrayList<>();
+        }
+        AtomicReferenceArray<Cell> built = null;
+        try {
+            built = load();
+        } finally {
+            synchronized (this) {
+                if (built != null) {
+                    for (Consumer<AtomicReferenceArray<Cell>> change : journal) {
+                        change.accept(built);
+                    }
+                    grid = built;
+                }
+                journal = null;
+            }
+        }
+    }
+
+    private AtomicReferenceArray<Cell> load() {
+        Points points = new Points();
+        long afterId = 0;
+        List<CityPoint> batch;
+        do {
+            batch = cityRepository.findPointsAfterId(afterId, Limit.of(buildBatchSize));
+            for (CityPoint city : batch) {
+                if (city.latitude() != null && city.longitude() != null) {
+                    points.add(city.id(), city.latitude().floatValue(), city.longitude().floatValue());
+                }
+                afterId = city.id();
+            }
+        } while (batch.size() == buildBatchSize);
+        return points.toGrid();
+    }
+
+    public List<Neighbour> nearest(double latitude, double longitude, int k) {
+        AtomicReferenceArray<Cell> cells = grid;
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(k + 1, FARTHEST_FIRST);
+        int row = rowOf(latitude);
+        int column = columnOf(longitude);
+        for (int ring = 0; ring <= Math.max(rows, columns / 2); ring++) {
+            if (best.size() == k && lowerBoundKm(latitude, row, ring) > best.peek().distanceKm()) {
+                break;
+            }
+            visitRing(cells, row, column, ring, cell -> {
+                for (int i = 0; i < cell.ids.length; i++) {
+                    double distance = GeoPoints.distanceKm(latitude, longitude, cell.latitudes[i], cell.longitudes[i]);
+                    if (best.size() < k) {
+                        best.add(new Neighbour(cell.ids[i], distance));
+                    } else if (distance < best.peek().distanceKm()) {
+                        best.poll();
+                        best.add(new Neighbour(cell.ids[i], distance));
+                    }
+                }
+            });
+        }
+        List<Neighbour> nearest = new ArrayList<>(best);
+        nearest.sort(Comparator.comparingDouble(Neighbour::distanceKm).thenComparingLong(Neighbour::id));
+        return nearest;
+    }
+
+    /**
+     * The {@code limit} smallest ids inside the box, ascending.
+     */
+    public List<Long> within(BoundingBox box, int limit) {
+        AtomicReferenceArray<Cell> cells = grid;
+        int fromColumn = columnOf(box.minLon());
+        int toColumn = columnOf(box.maxLon());
+        int[][] columnRanges = !box.crossesAntimeridian() ? new int[][]{{fromColumn, toColumn}}
+                : toColumn >= fromColumn ? new int[][]{{0, columns - 1}}
+                : new int[][]{{fromColumn, columns - 1}, {0, toColumn}};
+        PriorityQueue<Long> smallest = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        for (int row = rowOf(box.minLat()); row <= rowOf(box.maxLat()); row++) {
+            for (int[] range : columnRanges) {
+                for (int column = range[0]; column <= range[1]; column++) {
+                    Cell cell = cells.get(row * columns + column);
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < cell.ids.length; i++) {
+                        if (box.contains(cell.latitudes[i], cell.longitudes[i])
+                                && (smallest.size() < limit || cell.ids[i] < smallest.peek())) {
+                            smallest.add(cell.ids[i]);
+                            if (smallest.size() > limit) {
+                                smallest.poll();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        List<Long> ids = new ArrayList<>(smallest);
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * Moves a city from its previous location to its current one; either may be null.
+     */
+    public void put(Long id, Double latitude, Double longitude, Double previousLatitude, Double previousLongitude) {
+        if (id == null || (latitude == null && previousLatitude == null)) {
+            return;
+        }
+        write(cells -> {
+            if (previousLatitude != null && previousLongitude != null) {
+                removeFrom(cells, id, previousLatitude.floatValue(), previousLongitude.floatValue());
+            }
+            if (latitude != null && longitude != null) {
+                addTo(cells, id, latitude.floatValue(), longitude.floatValue());
+            }
+        });
+    }
+
+    public void remove(Long id, Double latitude, Double longitude) {
+        if (id != null && latitude != null && longitude != null) {
+            write(cells -> removeFrom(cells, id, latitude.floatValue(), longitude.floatValue()));
+        }
+    }
+
+    /**
+     * Drops the given cities wherever they are and adds the points back at their current locations, for
+     * changes whose previous location is not known. Scans every cell once.
+     */
+    public void replace(Collection<Long> ids, Collection<CityPoint> points) {
+        if (ids.isEmpty() && points.isEmpty()) {
+            return;
+        }
+        Set<Long> removed = new HashSet<>(ids);
+        points.forEach(point -> removed.add(point.id()));
+        write(cells -> {
+            for (int index = 0; index < cells.length(); index++) {
+                Cell cell = cells.get(index);
+                if (cell != null) {
+                    cells.set(index, cell.without(removed));
+                }
+            }
+            for (CityPoint point : points) {
+                if (point.latitude() != null && point.longitude() != null) {
+                    addTo(cells, point.id(), point.latitude().floatValue(), point.longitude().floatValue());
+                }
+            }
+        });
+    }
+
+    private synchronized void write(Consumer<AtomicReferenceArray<Cell>> change) {
+        change.accept(grid);
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private void addTo(AtomicReferenceArray<Cell> cells, long id, float latitude, float longitude) {
+        int index = cellIndex(latitude, longitude);
+        Cell cell = cells.get(index);
+        cells.set(index, cell == null ? new Cell(new long[]{id}, new float[]{latitude}, new float[]{longitude})
+                : cell.with(id, latitude, longitude));
+    }
+
+    private void removeFrom(AtomicReferenceArray<Cell> cells, long id, float latitude, float longitude) {
+        int index = cellIndex(latitude, longitude);
+        Cell cell = cells.get(index);
+        if (cell != null) {
+            cells.set(index, cell.without(id));
+        }
+    }
+
+    /**
+     * Visits the cells whose row or (wrapping) column distance from the query cell is exactly {@code ring}.
+     */
+    private void visitRing(AtomicReferenceArray<Cell> cells, int row, int column, int ring, Consumer<Cell> visitor) {
+        for (int r = Math.max(0, row - ring); r <= Math.min(rows - 1, row + ring); r++) {
+            if (Math.abs(r - row) == ring) {
+                int from = 2 * ring + 1 >= columns ? 0 : column - ring;
+                int to = 2 * ring + 1 >= columns ? columns - 1 : column + ring;
+                for (int c = from; c <= to; c++) {
+                    visit(cells, r, c, visitor);
+                }
+            } else if (2 * ring < columns) {
+                visit(cells, r, column - ring, visitor);
+                visit(cells, r, column + ring, visitor);
+            } else if (2 * ring == columns) {
+                visit(cells, r, column + ring, visitor);
+            }
+        }
+    }
+
+    private void visit(AtomicReferenceArray<Cell> cells, int row, int column, Consumer<Cell> visitor) {
+        Cell cell = cells.get(row * columns + Math.floorMod(column, columns));
+        if (cell != null) {
+            visitor.accept(cell);
+        }
+    }
+
+    /**
+     * Lower bound on the distance from the query to any cell at ring {@code ring} or beyond. Such a cell is
+     * either at least ring - 1 whole rows away, or within ring - 1 rows and at least ring - 1 whole columns
+     * away; the latter bound shrinks with the cosine of the band's highest latitude.
+     */
+    private double lowerBoundKm(double latitude, int row, int ring) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double gap = Math.toRadians((ring - 1) * cellDegrees);
+        double bandLow = -90 + Math.max(0, row - ring + 1) * cellDegrees;
+        double bandHigh = -90 + (Math.min(rows - 1, row + ring - 1) + 1) * cellDegrees;
+        double maxLatitude = Math.min(90, Math.max(Math.abs(bandLow), Math.abs(bandHigh)));
+        double sin = Math.sin(Math.min(gap, Math.PI) / 2);
+        double h = Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(maxLatitude)) * sin * sin;
+        double longitudeGap = 2 * Math.asin(Math.min(1, Math.sqrt(Math.max(0, h))));
+        return Math.min(gap, longitudeGap) * GeoPoints.EARTH_RADIUS_KM;
+    }
+
+    private int cellIndex(float latitude, float longitude) {
+        return rowOf(latitude) * columns + columnOf(longitude);
+    }
+
+    private int rowOf(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private int columnOf(double longitude) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((longitude + 180) / cellDegrees)));
+    }
+
+    private static final class Cell {
+
+        private final long[] ids;
+        private final float[] latitudes;
+        private final float[] longitudes;
+
+        private Cell(long[] ids, float[] latitudes, float[] longitudes) {
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+        }
+
+        private Cell with(long id, float latitude, float longitude) {
+            int index = indexOf(id);
+            int size = index < 0 ? ids.length + 1 : ids.length;
+            Cell copy = new Cell(Arrays.copyOf(ids, size), Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size));
+            int at = index < 0 ? size - 1 : index;
+            copy.ids[at] = id;
+            copy.latitudes[at] = latitude;
+            copy.longitudes[at] = longitude;
+            return copy;
+        }
+
+        private Cell without(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            int last = ids.length - 1;
+            Cell copy = new Cell(Arrays.copyOf(ids, last), Arrays.copyOf(latitudes, last), Arrays.copyOf(longitudes, last));
+            if (index < last) {
+                copy.ids[index] = ids[last];
+                copy.latitudes[index] = latitudes[last];
+                copy.longitudes[index] = longitudes[last];
+            }
+            return copy;
+        }
+
+        private Cell without(Set<Long> removed) {
+            int kept = 0;
+            for (long id : ids) {
+                if (!removed.contains(id)) {
+                    kept++;
+                }
+            }
+            if (kept == ids.length) {
+                return this;
+            }
+            if (kept == 0) {
+                return null;
+            }
+            Cell copy = new Cell(new long[kept], new float[kept], new float[kept]);
+            int at = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (!removed.contains(ids[i])) {
+                    copy.ids[at] = ids[i];
+                    copy.latitudes[at] = latitudes[i];
+                    copy.longitudes[at] = longitudes[i];
+                    at++;
+                }
+            }
+            return copy;
+        }
+
+        private int indexOf(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Growable buffer of loaded points, bucketed into cells once the whole table has been read.
+     */
+    private final class Points {
+
+        private long[] ids = new long[1024];
+        private float[] latitudes = new float[1024];
+        private float[] longitudes = new float[1024];
+        private int size;
+
+        private void add(long id, float latitude, float longitude) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        private AtomicReferenceArray<Cell> toGrid() {
+            int[] cellOf = new int[size];
+            int[] counts = new int[rows * columns];
+            for (int i = 0; i < size; i++) {
+                cellOf[i] = cellIndex(latitudes[i], longitudes[i]);
+                counts[cellOf[i]]++;
+            }
+            AtomicReferenceArray<Cell> cells = new AtomicReferenceArray<>(rows * columns);
+            Cell[] filling = new Cell[rows * columns];
+            int[] filled = new int[rows * columns];
+            for (int i = 0; i < size; i++) {
+                int index = cellOf[i];
+                Cell cell = filling[index];
+                if (cell == null) {
+                    int count = counts[index];
+                    cell = new Cell(new long[count], new float[count], new float[count]);
+                    filling[index] = cell;
+                    cells.set(index, cell);
+                }
+                int at = filled[index]++;
+                cell.ids[at] = ids[i];
+                cell.latitudes[at] = latitudes[i];
+                cell.longitudes[at] = longitudes[i];
+            }
+            return cells;
+        }
+    }
+}
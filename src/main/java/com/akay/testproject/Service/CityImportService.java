@@ -0,0 +1,206 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.ChunkResult;
+import com.akay.testproject.Dto.CityImportRow;
+import com.akay.testproject.Dto.ImportProgress;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams NDJSON or CSV city rows from the request body into the database chunk by chunk.
+ * Only the current chunk is held in memory, and lines longer than {@code app.bulk.max-line-length}
+ * characters stop the import; a progress line is written to the response after every chunk.
+ */
+@Service
+@Timed("app.service")
+public class CityImportService {
+
+    private static final int MAX_ERRORS_PER_CHUNK = 10;
+    private static final String CSV_HEADER = "name,countrycode";
+
+    private final CityService cityService;
+    private final CountryCache countryCache;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxLineLength;
+
+    public CityImportService(CityService cityService, CountryCache countryCache, ObjectMapper objectMapper,
+                             @Value("${app.bulk.chunk-size:1000}") int chunkSize,
+                             @Value("${app.bulk.max-line-length:65536}") int maxLineLength) {
+        this.cityService = cityService;
+        this.countryCache = countryCache;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * An over-long line ends the import with an {@link IllegalArgumentException} naming it. Before the
+     * first progress line that becomes a 400 and nothing is written; later the rows read so far are
+     * written, the error goes out with their progress line and the stream ends without a final one.
+     */
+    public void importCities(InputStream body, ImportFormat format, OutputStream out) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+        ImportRun run = new ImportRun(out);
+        String line;
+        while ((line = readLine(reader, run)) != null) {
+            long lineNumber = reader.lineNumber();
+            if (line.isBlank() || (format == ImportFormat.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+            try {
+                run.accept(toCity(parse(line, format)));
+            } catch (RuntimeException | JsonProcessingException e) {
+                run.reject(lineNumber, e.getMessage());
+            }
+            if (run.processed >= chunkSize) {
+                run.flushChunk();
+            }
+        }
+        run.finish();
+    }
+
+    private static String readLine(BoundedLineReader reader, ImportRun run) throws IOException {
+        try {
+            return reader.readLine();
+        } catch (IllegalArgumentException e) {
+            run.abort(e.getMessage());
+            throw e;
+        }
+    }
+
+    private CityImportRow parse(String line, ImportFormat format) throws JsonProcessingException {
+        if (format == ImportFormat.NDJSON) {
+            return objectMapper.readValue(line, CityImportRow.class);
+        }
+        List<String> fields = CsvLines.parse(line);
+        if (fields.size() < 2) {
+            throw new IllegalArgumentException("Expected name,countryCode but got " + fields.size() + " field(s)");
+        }
+        // name,countryCode[,id,latitude,longitude] - the id column of exports is ignored
+        return new CityImportRow(fields.get(0).trim(), fields.get(1).trim(),
+                coordinate(fields, 3, "latitude"), coordinate(fields, 4, "longitude"));
+    }
+
+    private static Double coordinate(List<String> fields, int index, String name) {
+        if (fields.size() <= index || fields.get(index).isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(fields.get(index).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " " + fields.get(index));
+        }
+    }
+
+    private City toCity(CityImportRow row) {
+        if (row.name() == null || row.name().isBlank()) {
+            throw new IllegalArgumentException("City name is required");
+        }
+        if (row.countryCode() == null || row.countryCode().isBlank()) {
+            throw new IllegalArgumentException("Country code is required");
+        }
+        GeoPoints.validate(row.latitude(), row.longitude());
+        Country country = countryCache.findByCode(row.countryCode())
+                .orElseThrow(() -> new IllegalArgumentException("Country not found with code " + row.countryCode()));
+        return City.builder()
+                .name(row.name())
+                .country(country)
+                .latitude(row.latitude())
+                .longitude(row.longitude())
+                .build();
+    }
+
+    private static boolean isCsvHeader(String line) {
+        // exports add an id column after name,countryCode
+        return line.replace(" ", "").replace("\"", "").toLowerCase(Locale.ROOT).startsWith(CSV_HEADER);
+    }
+
+    private class ImportRun {
+
+        private final OutputStream out;
+        private final List<City> cities = new ArrayList<>(chunkSize);
+        private final List<String> errors = new ArrayList<>();
+        private int chunk;
+        private int processed;
+        private int rejected;
+        private long totalWritten;
+        private long totalFailed;
+
+        private ImportRun(OutputStream out) {
+            this.out = out;
+        }
+
+        private void accept(City city) {
+            cities.add(city);
+            processed++;
+        }
+
+        private void reject(long lineNumber, String message) {
+            rejected++;
+            processed++;
+            addError("line " + lineNumber + ": " + message);
+        }
+
+        private void flushChunk() throws IOException {
+            int written = 0;
+            int failed = rejected;
+            if (!cities.isEmpty()) {
+                ChunkResult result = cityService.createCitiesChunk(chunk, List.copyOf(cities));
+                written = result.written();
+                failed += result.failed();
+                if (result.error() != null) {
+                    addError("chunk " + chunk + ": " + result.error());
+                }
+            }
+            totalWritten += written;
+            totalFailed += failed;
+            write(new ImportProgress(chunk, written, failed, totalWritten, totalFailed, List.copyOf(errors), false));
+            chunk++;
+            processed = 0;
+            rejected = 0;
+            cities.clear();
+            errors.clear();
+        }
+
+        private void abort(String error) throws IOException {
+            if (chunk > 0) {
+                addError(error);
+                flushChunk();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (processed > 0) {
+                flushChunk();
+            }
+            write(new ImportProgress(chunk, 0, 0, totalWritten, totalFailed, List.of(), true));
+        }
+
+        private void addError(String error) {
+            if (errors.size() < MAX_ERRORS_PER_CHUNK) {
+                errors.add(error);
+            }
+        }
+
+        private void write(ImportProgress progress) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(progress));
+            out.write('\n');
+            out.flush();
+        }
+    }
+}
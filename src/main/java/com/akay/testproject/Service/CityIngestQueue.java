@@ -0,0 +1,200 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.ChunkResult;
+import com.akay.testproject.Dto.IngestStatus;
+import com.akay.testproject.Entity.City;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind ingestion for single city creates. Submissions go into a bounded lock-free queue and
+ * one writer thread coalesces them into chunks written through {@link CityService#createCitiesChunk},
+ * so a burst costs one transaction per chunk instead of one per city. A failed chunk is retried row by
+ * row so one bad city does not fail its neighbours. On shutdown new submissions are refused and the
+ * queue is drained before the data source goes away. Statuses are kept for {@code status-ttl} and at most
+ * {@code status-max-size} of them; an evicted tracking id reads as unknown.
+ */
+@Component
+public class CityIngestQueue implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CityIngestQueue.class);
+
+    private record Pending(UUID trackingId, City city) {
+    }
+
+    private final CityService cityService;
+    private final int capacity;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Duration drainTimeout;
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger chunkIndex = new AtomicInteger();
+    private final Cache<UUID, IngestStatus> statuses;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public CityIngestQueue(CityService cityService,
+                           @Value("${app.ingest.capacity:100000}") int capacity,
+                           @Value("${app.ingest.batch-size:${app.bulk.chunk-size:1000}}") int batchSize,
+                           @Value("${app.ingest.linger:10ms}") Duration linger,
+                           @Value("${app.ingest.status-ttl:10m}") Duration statusTtl,
+                           @Value("${app.ingest.status-max-size:100000}") long statusMaxSize,
+                           @Value("${app.ingest.drain-timeout:30s}") Duration drainTimeout) {
+        this.cityService = cityService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.drainTimeout = drainTimeout;
+        this.statuses = Caffeine.newBuilder().expireAfterWrite(statusTtl).maximumSize(statusMaxSize).build();
+    }
+
+    /**
+     * Returns the tracking id, or empty when the queue is full or shutting down.
+     */
+    public Optional<UUID> submit(City city) {
+        if (!accepting) {
+            return Optional.empty();
+        }
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return Optional.empty();
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        UUID trackingId = UUID.randomUUID();
+        statuses.put(trackingId, IngestStatus.pending(trackingId));
+        queue.offer(new Pending(trackingId, city));
+        if (current + 1 >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return Optional.of(trackingId);
+    }
+
+    public Optional<IngestStatus> status(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    public int getQueued() {
+        return size.get();
+    }
+
+    int drainOnce() {
+        List<Pending> batch = new ArrayList<>(Math.min(batchSize, size.get()));
+        Pending pending;
+        while (batch.size() < batchSize && (pending = queue.poll()) != null) {
+            batch.add(pending);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        size.addAndGet(-batch.size());
+
+        try {
+            List<City> cities = batch.stream().map(Pending::city).toList();
+            ChunkResult result = cityService.createCitiesChunk(chunkIndex.getAndIncrement(), cities);
+            if (result.failed() == 0) {
+                for (Pending written : batch) {
+                    statuses.put(written.trackingId(), IngestStatus.written(written.trackingId(), written.city().getId()));
+                }
+            } else {
+                batch.forEach(this::writeSingle);
+            }
+        } catch (Throwable e) {
+            log.error("Writing {} queued cities failed", batch.size(), e);
+            for (Pending failed : batch) {
+                statuses.put(failed.trackingId(), IngestStatus.failed(failed.trackingId(), String.valueOf(e.getMessage())));
+            }
+        }
+        return batch.size();
+    }
+
+    private void writeSingle(Pending pending) {
+        City city = pending.city();
+        city.setId(null);
+        try {
+            City created = cityService.createCity(city);
+            statuses.put(pending.trackingId(), IngestStatus.written(pending.trackingId(), created.getId()));
+        } catch (RuntimeException e) {
+            statuses.put(pending.trackingId(), IngestStatus.failed(pending.trackingId(), e.getMessage()));
+        }
+    }
+
+    private void runWriter() {
+        while (running || size.get() > 0) {
+            if (size.get() < batchSize && running) {
+                LockSupport.parkNanos(lingerNanos);
+            }
+            try {
+                drainOnce();
+            } catch (Throwable e) {
+                // the writer is the only consumer; losing it would leave submit() filling a dead queue
+                log.error("City ingest writer failed, continuing", e);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "city-ingest-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(drainTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server has finished its graceful shutdown, so requests accepted while
+     * draining connections are still written.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.ingest.queued", this, CityIngestQueue::getQueued).register(registry);
+        Gauge.builder("app.ingest.capacity", () -> capacity).register(registry);
+    }
+}
@@ -0,0 +1,244 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.CitySuggestion;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Repository.CityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over city names for typeahead.
+ * <p>
+ * Names live in an immutable snapshot of parallel arrays sorted by normalized name, which is searched
+ * with a binary search and read without locks. Writes go to a small concurrent delta (added entries plus
+ * masked ids) that is merged into a new snapshot once it grows past a fraction of the snapshot size,
+ * so the amortized cost of a write stays constant. The snapshot and its delta are published together as
+ * one {@link State}; compaction swaps in a new state with fresh delta sets, so a reader always sees a
+ * snapshot with the delta that belongs to it. Names are matched case and accent insensitively.
+ */
+@Component
+public class CityNameIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final int MIN_DELTA_SIZE = 10_000;
+
+    private final CityRepository cityRepository;
+    private final int buildBatchSize;
+    private volatile State state = State.of(Snapshot.of(List.of()));
+
+    public CityNameIndex(CityRepository cityRepository,
+                         @Value("${app.suggest.build-batch-size:10000}") int buildBatchSize) {
+        this.cityRepository = cityRepository;
+        this.buildBatchSize = buildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Entry> entries = new ArrayList<>();
+        long afterId = 0;
+        List<CitySuggestion> batch;
+        do {
+            batch = cityRepository.findNamesAfterId(afterId, Limit.of(buildBatchSize));
+            for (CitySuggestion city : batch) {
+                if (city.name() != null) {
+                    entries.add(new Entry(normalize(city.name()), city.id(), city.name()));
+                }
+                afterId = city.id();
+            }
+        } while (batch.size() == buildBatchSize);
+        entries.sort(ORDER);
+        synchronized (this) {
+            // writes since the load began are still in the delta and get merged onto the fresh snapshot
+            state = new State(Snapshot.of(entries), state.added(), state.addedById(), state.removed());
+            compact();
+        }
+    }
+
+    public List<CitySuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        State current = state;
+        Snapshot base = current.base();
+        List<Entry> candidates = new ArrayList<>();
+        for (int i = base.lowerBound(key); i < base.size() && base.keys[i].startsWith(key); i++) {
+            if (!current.removed().contains(base.ids[i])) {
+                candidates.add(base.entry(i));
+                if (candidates.size() == limit) {
+                    break;
+                }
+            }
+        }
+        int fromBase = candidates.size();
+        for (Entry entry : current.added().subSet(new Entry(key, Long.MIN_VALUE, null), new Entry(key + Character.MAX_VALUE, Long.MIN_VALUE, null))) {
+            candidates.add(entry);
+            if (candidates.size() - fromBase == limit) {
+                break;
+            }
+        }
+        candidates.sort(ORDER);
+        Set<Long> seen = new HashSet<>();
+        List<CitySuggestion> suggestions = new ArrayList<>(limit);
+        for (Entry entry : candidates) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            if (seen.add(entry.id())) {
+                suggestions.add(new CitySuggestion(entry.id(), entry.name()));
+            }
+        }
+        return suggestions;
+    }
+
+    public synchronized void put(City city) {
+        put(city.getId(), city.getName());
+    }
+
+    public synchronized void put(Long id, String name) {
+        if (id == null) {
+            return;
+        }
+        State current = state;
+        Entry previous = current.addedById().remove(id);
+        if (previous != null) {
+            current.added().remove(previous);
+        }
+        current.removed().add(id);
+        if (name != null) {
+            Entry entry = new Entry(normalize(name), id, name);
+            current.added().add(entry);
+            current.addedById().put(entry.id(), entry);
+        }
+        compactIfNeeded();
+    }
+
+    public synchronized void putAll(Collection<City> cities) {
+        cities.forEach(this::put);
+    }
+
+    public synchronized void remove(Long id) {
+        State current = state;
+        Entry previous = current.addedById().remove(id);
+        if (previous != null) {
+            current.added().remove(previous);
+        }
+        current.removed().add(id);
+        compactIfNeeded();
+    }
+
+    public synchronized void removeAll(Collection<Long> ids) {
+        ids.forEach(this::remove);
+    }
+
+    private void compactIfNeeded() {
+        State current = state;
+        if (current.added().size() + current.removed().size() > Math.max(MIN_DELTA_SIZE, current.base().size() / 8)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        State current = state;
+        Snapshot base = current.base();
+        List<Entry> merged = new ArrayList<>(base.size() + current.added().size());
+        Iterator<Entry> delta = current.added().iterator();
+        Entry next = delta.hasNext() ? delta.next() : null;
+        for (int i = 0; i < base.size(); i++) {
+            if (current.removed().contains(base.ids[i])) {
+                continue;
+            }
+            Entry entry = base.entry(i);
+            while (next != null && ORDER.compare(next, entry) < 0) {
+                merged.add(next);
+                next = delta.hasNext() ? delta.next() : null;
+            }
+            merged.add(entry);
+        }
+        while (next != null) {
+            merged.add(next);
+            next = delta.hasNext() ? delta.next() : null;
+        }
+        // Readers still holding the old state keep reading its delta, which no writer touches any more.
+        state = State.of(Snapshot.of(merged));
+    }
+
+    static String normalize(String name) {
+        String decomposed = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String key, long id, String name) {
+    }
+
+    private record State(Snapshot base, ConcurrentSkipListSet<Entry> added, ConcurrentHashMap<Long, Entry> addedById,
+                         Set<Long> removed) {
+
+        private static State of(Snapshot base) {
+            return new State(base, new ConcurrentSkipListSet<>(ORDER), new ConcurrentHashMap<>(),
+                    ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final String[] keys;
+        private final long[] ids;
+        private final String[] names;
+
+        private Snapshot(String[] keys, long[] ids, String[] names) {
+            this.keys = keys;
+            this.ids = ids;
+            this.names = names;
+        }
+
+        private static Snapshot of(List<Entry> sortedEntries) {
+            int size = sortedEntries.size();
+            String[] keys = new String[size];
+            long[] ids = new long[size];
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                Entry entry = sortedEntries.get(i);
+                keys[i] = entry.key();
+                ids[i] = entry.id();
+                // Names that are already normalized share the key string instead of keeping a second copy.
+                names[i] = entry.name().equals(entry.key()) ? null : entry.name();
+            }
+            return new Snapshot(keys, ids, names);
+        }
+
+        private int size() {
+            return keys.length;
+        }
+
+        private Entry entry(int i) {
+            return new Entry(keys[i], ids[i], names[i] == null ? keys[i] : names[i]);
+        }
+
+        private int lowerBound(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return -index - 1;
+            }
+            while (index > 0 && keys[index - 1].equals(key)) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
@@ -1,41 +1,358 @@
 package com.akay.testproject.Service;
 
+import com.akay.testproject.Dto.BoundingBox;
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Dto.CursorPage;
+import com.akay.testproject.Dto.ChunkResult;
+import com.akay.testproject.Dto.CityLocation;
+import com.akay.testproject.Dto.CitySearchCriteria;
+import com.akay.testproject.Dto.CitySuggestion;
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Dto.NearbyCity;
 import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CityCountryRef;
 import com.akay.testproject.Repository.CityRepository;
+import com.akay.testproject.Repository.CitySpecifications;
+import com.akay.testproject.Repository.CountryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class CityService {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_IDS_PER_DELETE = 1000;
+    private static final int MAX_NEARBY = 1000;
+    private static final int MAX_WITHIN = 10_000;
+
     private final CityRepository cityRepository;
+    private final CountryRepository countryRepository;
+    private final ChunkedWriter chunkedWriter;
+    private final CountryCache countryCache;
+    private final CityNameIndex cityNameIndex;
+    private final CityGeoIndex cityGeoIndex;
+    private final ChangeLog changeLog;
 
-    public CityService(CityRepository cityRepository) {
+    public CityService(CityRepository cityRepository, CountryRepository countryRepository, ChunkedWriter chunkedWriter,
+                       CountryCache countryCache, CityNameIndex cityNameIndex, CityGeoIndex cityGeoIndex,
+                       ChangeLog changeLog) {
         this.cityRepository = cityRepository;
+        this.countryRepository = countryRepository;
+        this.chunkedWriter = chunkedWriter;
+        this.countryCache = countryCache;
+        this.cityNameIndex = cityNameIndex;
+        this.cityGeoIndex = cityGeoIndex;
+        this.changeLog = changeLog;
     }
 
+    @Transactional
     public City createCity(City city) {
-        return cityRepository.save(city);
+        GeoPoints.validate(city.getLatitude(), city.getLongitude());
+        city.setCountry(resolveCountry(city.getCountry()));
+        City createdCity = cityRepository.save(city);
+        adjustCityCount(countryIdOf(createdCity.getCountry()), 1);
+        AfterCommit.run(() -> cityNameIndex.put(createdCity));
+        AfterCommit.run(() -> cityGeoIndex.put(createdCity.getId(), createdCity.getLatitude(),
+                createdCity.getLongitude(), null, null));
+        return createdCity;
+    }
+
+    public BulkResult createCities(List<City> cities) {
+        return chunkedWriter.write(cities, this::saveChunk);
+    }
+
+    public ChunkResult createCitiesChunk(int index, List<City> chunk) {
+        return chunkedWriter.writeChunk(index, chunk, this::saveChunk);
+    }
+
+    private void saveChunk(List<City> chunk) {
+        for (City city : chunk) {
+            GeoPoints.validate(city.getLatitude(), city.getLongitude());
+            city.setCountry(resolveCountry(city.getCountry()));
+        }
+        cityRepository.saveAll(chunk);
+        Map<Long, Long> added = new TreeMap<>();
+        for (City city : chunk) {
+            Long countryId = countryIdOf(city.getCountry());
+            if (countryId != null) {
+                added.merge(countryId, 1L, Long::sum);
+            }
+        }
+        added.forEach(this::adjustCityCount);
+        AfterCommit.run(() -> cityNameIndex.putAll(chunk));
+        AfterCommit.run(() -> chunk.forEach(city ->
+                cityGeoIndex.put(city.getId(), city.getLatitude(), city.getLongitude(), null, null)));
     }
 
+    @Transactional
     public City updateCity(Long id, City cityDetails) {
         Optional<City> optionalCity = cityRepository.findById(id);
         if (optionalCity.isPresent()) {
             City city = optionalCity.get();
+            GeoPoints.validate(cityDetails.getLatitude(), cityDetails.getLongitude());
+            Long previousCountryId = countryIdOf(city.getCountry());
+            Double previousLatitude = city.getLatitude();
+            Double previousLongitude = city.getLongitude();
             city.setName(cityDetails.getName());
-            city.setCountry(cityDetails.getCountry());
-            return cityRepository.save(city);
+            city.setCountry(resolveCountry(cityDetails.getCountry()));
+            city.setLatitude(cityDetails.getLatitude());
+            city.setLongitude(cityDetails.getLongitude());
+            // flushed before the counters, so this path locks the city row first like every other writer
+            City updatedCity = cityRepository.saveAndFlush(city);
+            moveCityCount(previousCountryId, countryIdOf(updatedCity.getCountry()));
+            AfterCommit.run(() -> cityNameIndex.put(updatedCity));
+            AfterCommit.run(() -> cityGeoIndex.put(id, updatedCity.getLatitude(), updatedCity.getLongitude(),
+                    previousLatitude, previousLongitude));
+            return updatedCity;
         }
         throw new RuntimeException("City not found with id " + id);
     }
 
+    @Transactional
+    public City updateCity(Long id, Long expectedVersion, City cityDetails) {
+        GeoPoints.validate(cityDetails.getLatitude(), cityDetails.getLongitude());
+        Country country = resolveCountry(cityDetails.getCountry());
+        List<CityCountryRef> updated = cityRepository.updateIfVersion(id, expectedVersion, cityDetails.getName(),
+                countryIdOf(country), cityDetails.getLatitude(), cityDetails.getLongitude());
+        if (updated.isEmpty()) {
+            if (!cityRepository.existsById(id)) {
+                throw new RuntimeException("City not found with id " + id);
+            }
+            throw new OptimisticLockingFailureException("City " + id + " is no longer at version " + expectedVersion);
+        }
+        CityCountryRef previous = updated.get(0);
+        moveCityCount(previous.getCountryId(), countryIdOf(country));
+        City updatedCity = City.builder().id(id).name(cityDetails.getName()).country(country)
+                .latitude(cityDetails.getLatitude()).longitude(cityDetails.getLongitude())
+                .version(expectedVersion + 1).build();
+        AfterCommit.run(() -> cityNameIndex.put(updatedCity));
+        AfterCommit.run(() -> cityGeoIndex.put(id, updatedCity.getLatitude(), updatedCity.getLongitude(),
+                previous.getLatitude(), previous.getLongitude()));
+        return updatedCity;
+    }
+
+    private Country resolveCountry(Country country) {
+        if (country == null) {
+            return null;
+        }
+        if (country.getId() != null) {
+            return countryCache.findById(country.getId())
+                    .orElseThrow(() -> new RuntimeException("Country not found with id " + country.getId()));
+        }
+        if (country.getCode() != null) {
+            return countryCache.findByCode(country.getCode())
+                    .orElseThrow(() -> new RuntimeException("Country not found with code " + country.getCode()));
+        }
+        return country;
+    }
+
+    @Transactional
     public void deleteCity(Long id) {
-        cityRepository.deleteById(id);
+        afterBulkDelete(cityRepository.deleteByIdReturningCountry(id));
+    }
+
+    @Transactional
+    public int deleteCitiesOfCountry(Long countryId) {
+        return afterBulkDelete(cityRepository.deleteByCountryIdReturningIds(countryId));
+    }
+
+    public int deleteCitiesByCountryCode(String countryCode) {
+        return countryCache.findByCode(countryCode)
+                .map(country -> deleteCitiesOfCountry(country.getId()))
+                .orElse(0);
+    }
+
+    @Transactional
+    public int deleteCities(List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_IDS_PER_DELETE + " ids can be deleted at once");
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return afterBulkDelete(cityRepository.deleteByIdInReturningIds(ids));
+    }
+
+    private int afterBulkDelete(List<CityCountryRef> deleted) {
+        if (deleted.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Long> removed = new TreeMap<>();
+        List<Long> deletedIds = new ArrayList<>(deleted.size());
+        for (CityCountryRef city : deleted) {
+            deletedIds.add(city.getId());
+            if (city.getCountryId() != null) {
+                removed.merge(city.getCountryId(), -1L, Long::sum);
+            }
+        }
+        removed.forEach(this::adjustCityCount);
+        AfterCommit.run(() -> cityNameIndex.removeAll(deletedIds));
+        AfterCommit.run(() -> deleted.forEach(city ->
+                cityGeoIndex.remove(city.getId(), city.getLatitude(), city.getLongitude())));
+        return deleted.size();
+    }
+
+    private void moveCityCount(Long fromCountryId, Long toCountryId) {
+        if (Objects.equals(fromCountryId, toCountryId)) {
+            return;
+        }
+        // fixed lock order, so two moves in opposite directions cannot deadlock
+        Map<Long, Long> deltas = new TreeMap<>();
+        if (fromCountryId != null) {
+            deltas.put(fromCountryId, -1L);
+        }
+        if (toCountryId != null) {
+            deltas.put(toCountryId, 1L);
+        }
+        deltas.forEach(this::adjustCityCount);
+    }
+
+    private void adjustCityCount(Long countryId, long delta) {
+        if (countryId != null && delta != 0) {
+            countryRepository.addToCityCount(countryId, delta);
+        }
+    }
+
+    private static Long countryIdOf(Country country) {
+        return country == null ? null : country.getId();
+    }
+
+    public List<CitySuggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return cityNameIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * The k cities closest to the point, nearest first. Candidates come from the geo index; names and the
+     * distances reported are taken from the rows as they are now.
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyCity> findNearby(double latitude, double longitude, int k) {
+        GeoPoints.validate(latitude, longitude);
+        int limit = Math.max(1, Math.min(k, MAX_NEARBY));
+        List<Long> ids = cityGeoIndex.nearest(latitude, longitude, limit).stream()
+                .map(CityGeoIndex.Neighbour::id)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return cityRepository.findLocationsByIdIn(ids).stream()
+                .filter(city -> city.latitude() != null && city.longitude() != null)
+                .map(city -> new NearbyCity(city.id(), city.name(), city.countryCode(), city.latitude(),
+                        city.longitude(), GeoPoints.distanceKm(latitude, longitude, city.latitude(), city.longitude())))
+                .sorted(Comparator.comparingDouble(NearbyCity::distanceKm).thenComparing(NearbyCity::id))
+                .toList();
+    }
+
+    /**
+     * The first {@code limit} cities inside the box by id, ordered by id. Candidates come from the geo
+     * index; rows that have moved out of the box since it was last updated are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<CityLocation> findWithin(BoundingBox box, int limit) {
+        List<Long> ids = cityGeoIndex.within(box, Math.max(1, Math.min(limit, MAX_WITHIN)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return cityRepository.findLocationsByIdIn(ids).stream()
+                .filter(city -> city.latitude() != null && box.contains(city.latitude(), city.longitude()))
+                .sorted(Comparator.comparing(CityLocation::id))
+                .toList();
+    }
+
+    /**
+     * Cities written since the token, each with its current name, country and location.
+     */
+    public ChangeFeed<CityLocation> findChanges(String since, int limit) {
+        return changeLog.read(TableVersions.Table.CITIES, since, limit, this::findLocationsById);
+    }
+
+    private Map<Long, CityLocation> findLocationsById(Collection<Long> ids) {
+        return cityRepository.findLocationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(CityLocation::id, Function.identity()));
     }
 
+    @Transactional(readOnly = true)
     public Page<City> findAll(Pageable pageable) {
         return cityRepository.findAll(pageable);
     }
-}
\ No newline at end of file
+
+    @Transactional(readOnly = true)
+    public Page<CityView> findAllViews(Pageable pageable) {
+        return cityRepository.findAllViews(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CityView> search(CitySearchCriteria criteria, Pageable pageable) {
+        if (criteria == null || criteria.isEmpty()) {
+            return findAllViews(pageable);
+        }
+        List<Specification<City>> specs = new ArrayList<>();
+        if (criteria.countryCode() != null) {
+            Optional<Country> country = countryCache.findByCode(criteria.countryCode());
+            if (country.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            specs.add(CitySpecifications.hasCountryId(country.get().getId()));
+        }
+        if (criteria.namePrefix() != null) {
+            specs.add(CitySpecifications.nameStartsWith(criteria.namePrefix()));
+        }
+        if (criteria.minId() != null || criteria.maxId() != null) {
+            specs.add(CitySpecifications.idBetween(criteria.minId(), criteria.maxId()));
+        }
+        return cityRepository.findAll(Specification.allOf(specs), pageable).map(CityView::from);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<City> scroll(String cursor, KeysetOrder order, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        KeysetOrder effectiveOrder = after == null ? order : after.order();
+        List<City> rows;
+        if (effectiveOrder == KeysetOrder.NAME) {
+            if (after == null) {
+                rows = cityRepository.findFirstOrderByName(limit);
+            } else if (after.name() == null) {
+                rows = cityRepository.findUnnamedAfterId(after.id(), limit);
+            } else {
+                rows = cityRepository.findAfterOrderByName(after.name(), after.id(), limit);
+                if (rows.size() < limit.max()) {
+                    // named rows ran out; unnamed ones follow them, as in the first page's order
+                    rows = new ArrayList<>(rows);
+                    rows.addAll(cityRepository.findUnnamedAfterId(0L, Limit.of(limit.max() - rows.size())));
+                }
+            }
+        } else {
+            rows = after == null
+                    ? cityRepository.findFirstOrderById(limit)
+                    : cityRepository.findAfterOrderById(after.id(), limit);
+        }
+        return CursorPage.of(rows, pageSize,
+                last -> KeysetCursor.after(effectiveOrder, last.getId(), last.getName()).encode());
+    }
+}
@@ -0,0 +1,89 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.CountryCacheStats;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CountryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded, TTL-evicting read-through cache of countries by id and by code.
+ * Misses are not cached, and every country write invalidates the affected entries; writes made
+ * elsewhere are picked up from the change log by {@link ChangeLogFollower}.
+ */
+@Component
+public class CountryCache implements MeterBinder {
+
+    private final CountryRepository countryRepository;
+    private final Cache<Long, Country> byId;
+    private final Cache<String, Country> byCode;
+
+    public CountryCache(CountryRepository countryRepository,
+                        @Value("${app.country-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${app.country-cache.ttl:10m}") Duration ttl) {
+        this.countryRepository = countryRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byCode = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Country> findById(Long id) {
+        return Optional.ofNullable(byId.get(id, key -> countryRepository.findById(key).orElse(null)));
+    }
+
+    public Optional<Country> findByCode(String code) {
+        return Optional.ofNullable(byCode.get(code, key -> countryRepository.findByCode(key).orElse(null)));
+    }
+
+    public Map<String, Country> findAllByCode(Collection<String> codes) {
+        return byCode.getAll(codes, missing -> countryRepository.findAllByCodeIn(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Country::getCode, Function.identity())));
+    }
+
+    public void invalidate(Long id) {
+        byId.invalidate(id);
+        byCode.asMap().values().removeIf(country -> id.equals(country.getId()));
+    }
+
+    public void invalidateCode(String code) {
+        byCode.invalidate(code);
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byCode.invalidateAll();
+    }
+
+    public CountryCacheStats stats() {
+        CacheStats stats = byId.stats().plus(byCode.stats());
+        return new CountryCacheStats(byId.estimatedSize() + byCode.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "countries.byId");
+        CaffeineCacheMetrics.monitor(registry, byCode, "countries.byCode");
+    }
+}
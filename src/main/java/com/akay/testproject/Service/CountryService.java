@@ -1,42 +1,257 @@
 package com.akay.testproject.Service;
 
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Dto.CountryCacheStats;
+import com.akay.testproject.Dto.CountryCityCount;
+import com.akay.testproject.Dto.CountryStats;
+import com.akay.testproject.Dto.CountrySearchCriteria;
+import com.akay.testproject.Dto.CursorPage;
 import com.akay.testproject.Entity.Country;
 import com.akay.testproject.Repository.CountryRepository;
+import com.akay.testproject.Repository.CountrySpecifications;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class CountryService {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_CODES_PER_LOOKUP = 1000;
+    private static final int MAX_TOP_COUNTRIES = 1000;
+    private static final int RECOUNT_BATCH_SIZE = 100;
+
     private final CountryRepository countryRepository;
+    private final ChunkedWriter chunkedWriter;
+    private final CountryCache countryCache;
+    private final CityService cityService;
+    private final ChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate batchTemplate;
 
-    public CountryService(CountryRepository countryRepository) {
+    public CountryService(CountryRepository countryRepository, ChunkedWriter chunkedWriter, CountryCache countryCache,
+                          CityService cityService, ChangeLog changeLog,
+                          PlatformTransactionManager transactionManager) {
         this.countryRepository = countryRepository;
+        this.chunkedWriter = chunkedWriter;
+        this.countryCache = countryCache;
+        this.cityService = cityService;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // the outer transaction only holds the advisory lock; each batch commits on its own
+        this.batchTemplate = new TransactionTemplate(transactionManager);
+        this.batchTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
+    @Transactional
     public Country createCountry(Country country) {
-        return countryRepository.save(country);
+        Country createdCountry = countryRepository.save(country);
+        String code = createdCountry.getCode();
+        AfterCommit.run(() -> countryCache.invalidateCode(code));
+        return createdCountry;
+    }
+
+    public BulkResult createCountries(List<Country> countries) {
+        return chunkedWriter.write(countries, chunk -> {
+            countryRepository.saveAll(chunk);
+        });
     }
 
+    @Transactional
     public Country updateCountry(Long id, Country countryDetails) {
         Optional<Country> optionalCountry = countryRepository.findById(id);
         if (optionalCountry.isPresent()) {
             Country country = optionalCountry.get();
             country.setName(countryDetails.getName());
             country.setCode(countryDetails.getCode());
-            return countryRepository.save(country);
+            Country updatedCountry = countryRepository.save(country);
+            AfterCommit.run(() -> countryCache.invalidate(id));
+            return updatedCountry;
         }
         throw new RuntimeException("Country not found with id " + id);
     }
 
+    @Transactional
+    public Country updateCountry(Long id, Long expectedVersion, Country countryDetails) {
+        if (countryRepository.updateIfVersion(id, expectedVersion, countryDetails.getName(), countryDetails.getCode()) == 0) {
+            if (!countryRepository.existsById(id)) {
+                throw new RuntimeException("Country not found with id " + id);
+            }
+            throw new OptimisticLockingFailureException("Country " + id + " is no longer at version " + expectedVersion);
+        }
+        AfterCommit.run(() -> countryCache.invalidate(id));
+        return Country.builder().id(id).name(countryDetails.getName()).code(countryDetails.getCode())
+                .version(expectedVersion + 1).build();
+    }
+
+    @Transactional
     public void deleteCountry(Long id) {
         countryRepository.deleteById(id);
+        AfterCommit.run(() -> countryCache.invalidate(id));
+    }
+
+    /**
+     * Deletes the country and all of its cities with one set-based statement each, in one transaction.
+     */
+    @Transactional
+    public int deleteCountryWithCities(Long id) {
+        int deletedCities = cityService.deleteCitiesOfCountry(id);
+        if (countryRepository.bulkDeleteById(id) == 0) {
+            throw new RuntimeException("Country not found with id " + id);
+        }
+        AfterCommit.run(() -> countryCache.invalidate(id));
+        return deletedCities;
     }
 
+    /**
+     * Countries written since the token. City counts move with every city write and are not logged,
+     * so a synced copy has to refresh them separately.
+     */
+    public ChangeFeed<Country> findChanges(String since, int limit) {
+        return changeLog.read(TableVersions.Table.COUNTRIES, since, limit, this::findAllById);
+    }
+
+    private Map<Long, Country> findAllById(Collection<Long> ids) {
+        return countryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Country::getId, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CountryCityCount> findCityCount(Long id) {
+        return countryRepository.findCityCountById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public CountryStats stats(int top) {
+        List<CountryCityCount> topCountries = countryRepository.findTopByCityCount(
+                Limit.of(Math.max(1, Math.min(top, MAX_TOP_COUNTRIES))));
+        return new CountryStats(countryRepository.count(), countryRepository.sumCityCounts(), topCountries);
+    }
+
+    /**
+     * Recounts cities per country and fixes drifted counters, a batch of countries per transaction. Each
+     * batch first locks its counters, so writers that already changed cities commit before the count is
+     * taken and later ones apply their deltas on top of it; city writes elsewhere are not blocked. Only one
+     * instance recounts at a time; the others return 0 right away.
+     */
+    @Scheduled(cron = "${app.city-count.rebuild-cron:0 0 3 * * *}")
+    public int rebuildCityCounts() {
+        Integer corrected = transactionTemplate.execute(status -> {
+            if (!countryRepository.tryLockCityCountRebuild()) {
+                return 0;
+            }
+            int total = 0;
+            long afterId = 0;
+            List<Long> ids;
+            do {
+                long from = afterId;
+                int[] batchCorrected = new int[1];
+                ids = batchTemplate.execute(batch -> {
+                    List<Long> locked = countryRepository.lockCountersAfterId(from, RECOUNT_BATCH_SIZE);
+                    if (!locked.isEmpty()) {
+                        batchCorrected[0] = countryRepository.recountCities(locked);
+                    }
+                    return locked;
+                });
+                total += batchCorrected[0];
+                if (!ids.isEmpty()) {
+                    afterId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == RECOUNT_BATCH_SIZE);
+            return total;
+        });
+        return corrected == null ? 0 : corrected;
+    }
+
+    public Optional<Country> findByCode(String code) {
+        return countryCache.findByCode(code);
+    }
+
+    public List<Country> findAllByCode(List<String> codes) {
+        if (codes.size() > MAX_CODES_PER_LOOKUP) {
+            throw new IllegalArgumentException("At most " + MAX_CODES_PER_LOOKUP + " codes can be resolved at once");
+        }
+        Map<String, Country> countries = countryCache.findAllByCode(codes);
+        return codes.stream()
+                .distinct()
+                .map(countries::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public CountryCacheStats cacheStats() {
+        return countryCache.stats();
+    }
+
+    @Transactional(readOnly = true)
     public Page<Country> findAll(Pageable pageable) {
         return countryRepository.findAll(pageable);
     }
+
+    @Transactional(readOnly = true)
+    public Page<Country> search(CountrySearchCriteria criteria, Pageable pageable) {
+        List<Specification<Country>> specs = new ArrayList<>();
+        if (criteria != null && criteria.code() != null) {
+            specs.add(CountrySpecifications.hasCode(criteria.code()));
+        }
+        if (criteria != null && criteria.namePrefix() != null) {
+            specs.add(CountrySpecifications.nameStartsWith(criteria.namePrefix()));
+        }
+        if (criteria != null && (criteria.minId() != null || criteria.maxId() != null)) {
+            specs.add(CountrySpecifications.idBetween(criteria.minId(), criteria.maxId()));
+        }
+        if (specs.isEmpty()) {
+            return findAll(pageable);
+        }
+        return countryRepository.findAll(Specification.allOf(specs), pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Country> scroll(String cursor, KeysetOrder order, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        KeysetOrder effectiveOrder = after == null ? order : after.order();
+        List<Country> rows;
+        if (effectiveOrder == KeysetOrder.NAME) {
+            if (after == null) {
+                rows = countryRepository.findFirstOrderByName(limit);
+            } else if (after.name() == null) {
+                rows = countryRepository.findUnnamedAfterId(after.id(), limit);
+            } else {
+                rows = countryRepository.findAfterOrderByName(after.name(), after.id(), limit);
+                if (rows.size() < limit.max()) {
+                    // named rows ran out; unnamed ones follow them, as in the first page's order
+                    rows = new ArrayList<>(rows);
+                    rows.addAll(countryRepository.findUnnamedAfterId(0L, Limit.of(limit.max() - rows.size())));
+                }
+            }
+        } else {
+            rows = after == null
+                    ? countryRepository.findFirstOrderById(limit)
+                    : countryRepository.findAfterOrderById(after.id(), limit);
+        }
+        return CursorPage.of(rows, pageSize,
+                last -> KeysetCursor.after(effectiveOrder, last.getId(), last.getName()).encode());
+    }
 }
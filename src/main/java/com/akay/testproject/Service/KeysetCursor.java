@@ -0,0 +1,35 @@
+package com.akay.testproject.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page, serialized as an opaque URL-safe token. A name-ordered
+ * position without a name stands for a row with a null name.
+ */
+public record KeysetCursor(KeysetOrder order, long id, String name) {
+
+    public static KeysetCursor after(KeysetOrder order, long id, String name) {
+        return new KeysetCursor(order, id, order == KeysetOrder.NAME ? name : null);
+    }
+
+    public String encode() {
+        String raw = order == KeysetOrder.NAME && name != null ? order + ":" + id + ":" + name : order + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            KeysetOrder order = KeysetOrder.valueOf(parts[0]);
+            long id = Long.parseLong(parts[1]);
+            if (order == KeysetOrder.NAME && parts.length > 2) {
+                return new KeysetCursor(order, id, parts[2]);
+            }
+            return new KeysetCursor(order, id, null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor " + token);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.akay.testproject.Service;
+
+import java.util.Locale;
+
+public enum KeysetOrder {
+    ID,
+    NAME;
+
+    public static KeysetOrder from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort " + value + ", expected id or name");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Repository.TableVersionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Change versions per table, kept in the database by triggers on every write, so every instance and
+ * every writer agree on them. Listings derive their validators from them with a single small query.
+ */
+@Component
+public class TableVersions {
+
+    public enum Table {
+        CITIES, COUNTRIES
+    }
+
+    public record Validators(String tag, Instant lastModified) {
+    }
+
+    private final TableVersionRepository tableVersionRepository;
+
+    public TableVersions(TableVersionRepository tableVersionRepository) {
+        this.tableVersionRepository = tableVersionRepository;
+    }
+
+    /**
+     * The tag joins the tables' versions in the given order; last-modified is the latest of them.
+     * Read in the caller's transaction when there is one, so it describes what that transaction sees.
+     */
+    @Transactional(readOnly = true)
+    public Validators current(Table... tables) {
+        Map<Table, TableVersionRepository.Row> rows = new EnumMap<>(Table.class);
+        tableVersionRepository.findAll().forEach(row -> rows.put(Table.valueOf(row.tableName()), row));
+        StringBuilder tag = new StringBuilder();
+        Instant lastModified = Instant.EPOCH;
+        for (Table table : tables) {
+            TableVersionRepository.Row row = rows.get(table);
+            if (!tag.isEmpty()) {
+                tag.append('-');
+            }
+            tag.append(row.version());
+            if (row.lastModified().isAfter(lastModified)) {
+                lastModified = row.lastModified();
+            }
+        }
+        return new Validators(tag.toString(), lastModified);
+    }
+}
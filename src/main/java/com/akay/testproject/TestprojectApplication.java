@@ -2,12 +2,16 @@ package com.akay.testproject;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class TestprojectApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(TestprojectApplication.class, args);
+        SpringApplication application = new SpringApplication(TestprojectApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,59 @@
+-- Schema as previously produced by ddl-auto: update. Written to be re-runnable so it can be
+-- applied on top of databases Hibernate already created (baseline-on-migrate, baseline version 0).
+
+create sequence if not exists countries_seq start with 1 increment by 50;
+create sequence if not exists cities_seq start with 1 increment by 50;
+
+create table if not exists countries (
+    id         bigint       not null,
+    name       varchar(255),
+    code       varchar(255),
+    city_count bigint       default 0 not null,
+    version    bigint       default 0 not null,
+    constraint countries_pkey primary key (id)
+);
+
+alter table countries add column if not exists city_count bigint default 0 not null;
+alter table countries add column if not exists version bigint default 0 not null;
+
+create table if not exists cities (
+    id         bigint       not null,
+    name       varchar(255),
+    country_id bigint,
+    version    bigint       default 0 not null,
+    constraint cities_pkey primary key (id)
+);
+
+alter table cities add column if not exists version bigint default 0 not null;
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conrelid = 'countries'::regclass and conname = 'ux_countries_code') then
+        alter table countries add constraint ux_countries_code unique (code);
+    end if;
+    if not exists (select 1 from pg_constraint where conrelid = 'cities'::regclass and contype = 'f') then
+        alter table cities add constraint fk_cities_country_id foreign key (country_id) references countries (id);
+    end if;
+end $$;
+
+create index if not exists ix_countries_name_id on countries (name, id);
+create index if not exists ix_cities_name_id on cities (name, id);
+create index if not exists ix_cities_country_id_name on cities (country_id, name);
+
+-- Tables filled under the old IDENTITY mapping come with fresh sequences. Hibernate's pooled
+-- optimizer hands out the 50 ids up to each value it fetches, so the next value has to clear the
+-- highest id by a whole block. Sequences that are already further ahead are left alone.
+select setval('countries_seq', next_id, false)
+from (select coalesce(max(id), 0) + 50 as next_id from countries) t
+where next_id > (select last_value from countries_seq);
+select setval('cities_seq', next_id, false)
+from (select coalesce(max(id), 0) + 50 as next_id from cities) t
+where next_id > (select last_value from cities_seq);
+
+-- city_count may have just been added to a populated table
+update countries co
+set city_count = counted.cities
+from (select co2.id, count(c.id) as cities
+      from countries co2 left join cities c on c.country_id = co2.id
+      group by co2.id) counted
+where counted.id = co.id and co.city_count <> counted.cities;
@@ -0,0 +1,35 @@
+-- Hash-partitions cities by country_id so country-scoped queries, indexes and vacuum touch a single
+-- partition. The partition count comes from spring.flyway.placeholders.city-partitions and cannot be
+-- changed by this script once applied.
+--
+-- A unique index on a partitioned table has to include the partition key, and country_id is nullable,
+-- so the primary key on id becomes unique (id, country_id); ids stay unique through cities_seq. Cities
+-- without a country hash to a partition like any other key. Updating country_id moves the row.
+
+do $$
+declare
+    partitions int := ${city-partitions};
+begin
+    create table cities_partitioned (
+        id         bigint       not null,
+        name       varchar(255),
+        country_id bigint,
+        version    bigint       default 0 not null
+    ) partition by hash (country_id);
+
+    for i in 0 .. partitions - 1 loop
+        execute format('create table cities_p%s partition of cities_partitioned for values with (modulus %s, remainder %s)',
+                       i, partitions, i);
+    end loop;
+
+    insert into cities_partitioned (id, name, country_id, version)
+    select id, name, country_id, version from cities;
+
+    drop table cities;
+    alter table cities_partitioned rename to cities;
+end $$;
+
+alter table cities add constraint ux_cities_id_country_id unique (id, country_id);
+alter table cities add constraint fk_cities_country_id foreign key (country_id) references countries (id);
+create index ix_cities_name_id on cities (name, id);
+create index ix_cities_country_id_name on cities (country_id, name);
@@ -0,0 +1,8 @@
+-- WGS84 coordinates in degrees; either both set or neither. Lookups by location are served from the
+-- in-memory CityGeoIndex, so there is no spatial index here.
+alter table cities add column latitude double precision;
+alter table cities add column longitude double precision;
+
+alter table cities add constraint ck_cities_location check (
+    (latitude is null and longitude is null)
+    or (latitude between -90 and 90 and longitude between -180 and 180));
@@ -0,0 +1,27 @@
+-- Append-only log of city and country writes, recorded in the writing transaction and read by the
+-- /changes endpoints. Readers order by the writer's transaction id and only look at transactions
+-- older than every one still running (pg_snapshot_xmin), so a position, once passed, never gains
+-- rows behind it; a plain sequence would, because sequence values are taken before commit.
+create table change_log (
+    seq        bigint generated always as identity,
+    txid       xid8         default pg_current_xact_id() not null,
+    table_name varchar(16)  not null,
+    entity_id  bigint       not null,
+    operation  varchar(8)   not null,
+    changed_at timestamptz  default now() not null,
+    constraint change_log_pkey primary key (seq)
+);
+
+create index ix_change_log_table_name_txid_seq on change_log (table_name, txid, seq);
+create index ix_change_log_changed_at on change_log (changed_at);
+
+-- Highest position removed by retention; cursors before it get 410 Gone and have to resync.
+create table change_log_horizon (
+    id   smallint default 1 not null,
+    txid xid8     not null,
+    seq  bigint   not null,
+    constraint change_log_horizon_pkey primary key (id),
+    constraint ck_change_log_horizon_single_row check (id = 1)
+);
+
+insert into change_log_horizon (id, txid, seq) values (1, '0', 0);
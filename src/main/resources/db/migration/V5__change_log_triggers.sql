@@ -0,0 +1,48 @@
+-- Fills change_log from statement-level triggers instead of the service layer, so every writer is
+-- covered: the MVC services, the reactive app, bulk and cascading deletes, and manual SQL. The rows a
+-- statement touched come from its transition tables; a city moving partition shows up as an update.
+-- Country updates are logged only when name or code changed, since city_count moves with every
+-- city write.
+
+create function log_city_changes() returns trigger language plpgsql as $$
+begin
+    if tg_op = 'DELETE' then
+        insert into change_log (table_name, entity_id, operation)
+        select 'CITIES', id, 'DELETE' from old_rows order by id;
+    else
+        insert into change_log (table_name, entity_id, operation)
+        select 'CITIES', id, 'UPSERT' from new_rows order by id;
+    end if;
+    return null;
+end $$;
+
+create trigger cities_log_insert after insert on cities
+    referencing new table as new_rows for each statement execute function log_city_changes();
+create trigger cities_log_update after update on cities
+    referencing new table as new_rows for each statement execute function log_city_changes();
+create trigger cities_log_delete after delete on cities
+    referencing old table as old_rows for each statement execute function log_city_changes();
+
+create function log_country_changes() returns trigger language plpgsql as $$
+begin
+    if tg_op = 'DELETE' then
+        insert into change_log (table_name, entity_id, operation)
+        select 'COUNTRIES', id, 'DELETE' from old_rows order by id;
+    elsif tg_op = 'INSERT' then
+        insert into change_log (table_name, entity_id, operation)
+        select 'COUNTRIES', id, 'UPSERT' from new_rows order by id;
+    else
+        insert into change_log (table_name, entity_id, operation)
+        select 'COUNTRIES', n.id, 'UPSERT' from new_rows n join old_rows o on o.id = n.id
+        where (n.name, n.code) is distinct from (o.name, o.code)
+        order by n.id;
+    end if;
+    return null;
+end $$;
+
+create trigger countries_log_insert after insert on countries
+    referencing new table as new_rows for each statement execute function log_country_changes();
+create trigger countries_log_update after update on countries
+    referencing old table as old_rows new table as new_rows for each statement execute function log_country_changes();
+create trigger countries_log_delete after delete on countries
+    referencing old table as old_rows for each statement execute function log_country_changes();
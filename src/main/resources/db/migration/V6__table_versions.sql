@@ -0,0 +1,46 @@
+-- Per-table change versions behind the listing ETag and Last-Modified headers. Triggers bump them for
+-- every writer, so all instances and the reactive app agree on them and they survive restarts.
+--
+-- The triggers are deferred to commit: each writing transaction bumps a table once, and takes these
+-- row locks after every other lock it holds (city rows, country counters), so they cannot be part of
+-- a deadlock. Both rows are locked in the same order whichever table is bumped.
+--
+-- last_modified is kept in whole seconds and moves at least one second per version, so an
+-- If-Modified-Since check never answers 304 for a version newer than the client's. While more than
+-- one write transaction per second commits it runs ahead of the clock, and falls back once writes
+-- slow down.
+create table table_versions (
+    table_name    varchar(16) not null,
+    version       bigint      default 0 not null,
+    last_modified timestamptz default date_trunc('second', now()) not null,
+    constraint table_versions_pkey primary key (table_name)
+);
+
+insert into table_versions (table_name) values ('CITIES'), ('COUNTRIES');
+
+create function bump_table_version() returns trigger language plpgsql as $$
+declare
+    marker text := 'table_versions.bumped_' || lower(tg_argv[0]);
+begin
+    if current_setting(marker, true) is distinct from 'on' then
+        perform 1 from table_versions order by table_name for no key update;
+        update table_versions
+        set version = version + 1,
+            last_modified = greatest(date_trunc('second', clock_timestamp()), last_modified + interval '1 second')
+        where table_name = tg_argv[0];
+        perform set_config(marker, 'on', true);
+    end if;
+    return null;
+end $$;
+
+create constraint trigger cities_bump_version after insert or update or delete on cities
+    deferrable initially deferred for each row execute function bump_table_version('CITIES');
+
+create constraint trigger countries_bump_version after insert or delete on countries
+    deferrable initially deferred for each row execute function bump_table_version('COUNTRIES');
+
+-- city_count is not part of any listing
+create constraint trigger countries_bump_version_on_update after update on countries
+    deferrable initially deferred for each row
+    when ((old.name, old.code, old.version) is distinct from (new.name, new.code, new.version))
+    execute function bump_table_version('COUNTRIES');
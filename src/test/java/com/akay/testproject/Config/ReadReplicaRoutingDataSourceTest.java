@@ -0,0 +1,167 @@
+package com.akay.testproject.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private ToggleDataSource replica;
+    private ReadReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        replica = new ToggleDataSource(database("replica"));
+        routing = routing(primary, Duration.ZERO);
+        setUpTemplates();
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToReplica() {
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void shouldSendWritesToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> {
+            jdbc.update("update node set name = name");
+            return whoAmI();
+        }));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsDown() {
+        replica.down = true;
+        routing.checkReplicas();
+
+        assertFalse(routing.getReplicaHealth().get("replica-0"));
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+
+        replica.down = false;
+        routing.checkReplicas();
+
+        assertTrue(routing.getReplicaHealth().get("replica-0"));
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void shouldReadFromPrimaryRightAfterWrite() {
+        routing = routing(database("primary"), Duration.ofMinutes(1));
+        setUpTemplates();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        bind(new MockHttpServletRequest(), response);
+
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        readWrite.executeWithoutResult(status -> jdbc.update("update node set name = name"));
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+        assertNotNull(response.getCookie(ReadReplicaRoutingDataSource.LAST_WRITE_COOKIE));
+    }
+
+    @Test
+    void shouldKeepWritingClientOnPrimaryAndOthersOnReplica() {
+        routing = routing(database("primary"), Duration.ofMinutes(1));
+        setUpTemplates();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        bind(new MockHttpServletRequest(), writeResponse);
+        readWrite.executeWithoutResult(status -> jdbc.update("update node set name = name"));
+
+        bind(new MockHttpServletRequest(), new MockHttpServletResponse());
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+
+        MockHttpServletRequest sameClient = new MockHttpServletRequest();
+        sameClient.setCookies(writeResponse.getCookie(ReadReplicaRoutingDataSource.LAST_WRITE_COOKIE));
+        bind(sameClient, new MockHttpServletResponse());
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void shouldNotPinReadsAfterBackgroundWrites() {
+        routing = routing(database("primary"), Duration.ofMinutes(1));
+        setUpTemplates();
+
+        readWrite.executeWithoutResult(status -> jdbc.update("update node set name = name"));
+
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static void bind(MockHttpServletRequest request, MockHttpServletResponse response) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    private ReadReplicaRoutingDataSource routing(DataSource primary, Duration primaryAfterWrite) {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary,
+                Map.of("replica-0", replica), Duration.ofSeconds(10), primaryAfterWrite);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private void setUpTemplates() {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(20))");
+        jdbc.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private static class ToggleDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        ToggleDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("replica down");
+            }
+            return super.getConnection();
+        }
+    }
+}
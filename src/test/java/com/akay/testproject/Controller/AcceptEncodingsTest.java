@@ -0,0 +1,33 @@
+package com.akay.testproject.Controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcceptEncodingsTest {
+
+    @Test
+    void shouldAcceptListedCoding() {
+        assertTrue(AcceptEncodings.accepts("gzip", "gzip"));
+        assertTrue(AcceptEncodings.accepts("br, GZIP;q=0.5", "gzip"));
+        assertTrue(AcceptEncodings.accepts("x-gzip", "gzip"));
+        assertTrue(AcceptEncodings.accepts("br;q=1, *;q=0.1", "gzip"));
+    }
+
+    @Test
+    void shouldRefuseCodingWithZeroQuality() {
+        assertFalse(AcceptEncodings.accepts("gzip;q=0", "gzip"));
+        assertFalse(AcceptEncodings.accepts("gzip; q=0.000, deflate", "gzip"));
+        assertFalse(AcceptEncodings.accepts("*, gzip;q=0", "gzip"));
+        assertFalse(AcceptEncodings.accepts("*;q=0", "gzip"));
+    }
+
+    @Test
+    void shouldRefuseUnlistedOrMissingCoding() {
+        assertFalse(AcceptEncodings.accepts(null, "gzip"));
+        assertFalse(AcceptEncodings.accepts("identity", "gzip"));
+        assertFalse(AcceptEncodings.accepts("gzipped", "gzip"));
+        assertFalse(AcceptEncodings.accepts("gzip;q=oops", "gzip"));
+    }
+}
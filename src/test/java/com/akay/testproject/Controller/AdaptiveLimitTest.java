@@ -0,0 +1,82 @@
+package com.akay.testproject.Controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void shouldBackOffOncePerBurstOfSlowResponses() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20, Duration.ofMillis(100), 0.5);
+        acquire(limit, 3);
+
+        limit.release(0, 500 * MS, false);
+        limit.release(0, 600 * MS, false);
+        assertEquals(5, limit.getLimit(), "Requests admitted before the decrease should not shrink it again");
+
+        limit.release(550 * MS, 800 * MS, false);
+        assertEquals(2, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void shouldNotDropBelowMinimum() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 3, 20, Duration.ofMillis(100), 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            acquire(limit, 1);
+            limit.release(i * 1000 * MS, i * 1000 * MS + 1, true);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void shouldGrowWhileBusyAndFast() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 2, 5, Duration.ofMillis(100), 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            acquire(limit, 4);
+            for (int j = 0; j < 4; j++) {
+                limit.release(0, 10 * MS, false);
+            }
+        }
+
+        assertEquals(5, limit.getLimit(), "The limit should grow up to, but not past, the maximum");
+    }
+
+    @Test
+    void shouldNotGrowWhileIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20, Duration.ofMillis(100), 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            acquire(limit, 1);
+            limit.release(0, 10 * MS, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void shouldRejectOnceLimitIsReached() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 2, Duration.ofMillis(100), 0.5);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    private static void acquire(AdaptiveLimit limit, int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+    }
+}
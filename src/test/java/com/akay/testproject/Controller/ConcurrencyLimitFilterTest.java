@@ -0,0 +1,170 @@
+package com.akay.testproject.Controller;
+
+import com.akay.testproject.Config.ConcurrencyProperties;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.akay.testproject.Controller.ConcurrencyLimitFilter.Partition.CHEAP;
+import static com.akay.testproject.Controller.ConcurrencyLimitFilter.Partition.EXPENSIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void shouldRejectRequestWhenNoPermitIsAvailable() throws Exception {
+        ConcurrencyLimitFilter filter = filter(1);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        MockFilterChain outerChain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> {
+            MockHttpServletResponse inner = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/cities"), inner, new MockFilterChain());
+            nested.set(inner);
+        });
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/cities"), outer, outerChain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, filter.getInFlight());
+    }
+
+    @Test
+    void shouldReleasePermitWhenChainThrows() {
+        ConcurrencyLimitFilter filter = filter(1);
+        MockFilterChain failingChain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThrows(IllegalStateException.class, () ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/cities"), new MockHttpServletResponse(), failingChain));
+
+        assertEquals(0, filter.getInFlight());
+    }
+
+    @Test
+    void shouldHoldPermitUntilAsyncRequestCompletes() throws Exception {
+        ConcurrencyLimitFilter filter = filter(1);
+        MockHttpServletRequest request = get("/cities/export");
+        request.setAsyncSupported(true);
+        MockFilterChain asyncChain = new MockFilterChain(new HttpServlet() {
+        }, (req, res, chain) -> req.startAsync(req, res));
+
+        filter.doFilter(request, new MockHttpServletResponse(), asyncChain);
+
+        assertEquals(1, filter.getLimit(EXPENSIVE).getInFlight());
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(0, filter.getLimit(EXPENSIVE).getInFlight());
+    }
+
+    @Test
+    void shouldNotBackOffForSlowAsyncRequests() throws Exception {
+        ConcurrencyProperties.Limit adaptive = new ConcurrencyProperties.Limit(10, 1, 10, Duration.ofMillis(1));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyProperties(1000, 0.5, adaptive, adaptive));
+        MockFilterChain asyncChain = new MockFilterChain(new HttpServlet() {
+        }, (req, res, chain) -> req.startAsync(req, res));
+        MockHttpServletRequest completed = get("/cities/export");
+        completed.setAsyncSupported(true);
+        MockHttpServletRequest timedOut = get("/cities/export");
+        timedOut.setAsyncSupported(true);
+
+        filter.doFilter(completed, new MockHttpServletResponse(), asyncChain);
+        filter.doFilter(timedOut, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+        }, (req, res, chain) -> req.startAsync(req, res)));
+        Thread.sleep(20);
+        ((MockAsyncContext) completed.getAsyncContext()).complete();
+        for (AsyncListener listener : ((MockAsyncContext) timedOut.getAsyncContext()).getListeners()) {
+            listener.onTimeout(new AsyncEvent(timedOut.getAsyncContext()));
+        }
+
+        assertEquals(10, filter.getLimit(EXPENSIVE).getLimit());
+        assertEquals(0, filter.getLimit(EXPENSIVE).getInFlight());
+    }
+
+    @Test
+    void shouldBackOffOnServerErrors() throws Exception {
+        ConcurrencyProperties.Limit adaptive = new ConcurrencyProperties.Limit(10, 1, 10, Duration.ofSeconds(1));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new ConcurrencyProperties(1000, 0.5, adaptive, adaptive));
+        MockFilterChain failingChain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> ((MockHttpServletResponse) response).setStatus(500));
+
+        filter.doFilter(get("/countries"), new MockHttpServletResponse(), failingChain);
+
+        assertEquals(5, filter.getLimit(CHEAP).getLimit());
+    }
+
+    @Test
+    void shouldClassifyDeepPagesExportsAndWritesAsExpensive() {
+        ConcurrencyLimitFilter filter = filter(1);
+
+        assertEquals(CHEAP, filter.partitionOf(get("/countries")));
+        assertEquals(CHEAP, filter.partitionOf(get("/cities", "page", "2", "size", "20")));
+        assertEquals(CHEAP, filter.partitionOf(get("/cities/scroll", "size", "500")));
+        assertEquals(EXPENSIVE, filter.partitionOf(get("/cities", "page", "60", "size", "20")));
+        assertEquals(EXPENSIVE, filter.partitionOf(get("/cities", "size", "2000")));
+        assertEquals(EXPENSIVE, filter.partitionOf(get("/cities/export")));
+        assertEquals(EXPENSIVE, filter.partitionOf(new MockHttpServletRequest("POST", "/countries")));
+        assertEquals(EXPENSIVE, filter.partitionOf(new MockHttpServletRequest("DELETE", "/cities/1")));
+    }
+
+    @Test
+    void shouldAdmitCheapReadsWhileExpensivePartitionIsFull() throws Exception {
+        ConcurrencyLimitFilter filter = filter(1);
+        AtomicReference<MockHttpServletResponse> cheap = new AtomicReference<>();
+        AtomicReference<MockHttpServletResponse> expensive = new AtomicReference<>();
+
+        MockFilterChain outerChain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> {
+            cheap.set(new MockHttpServletResponse());
+            filter.doFilter(get("/countries"), cheap.get(), new MockFilterChain());
+            expensive.set(new MockHttpServletResponse());
+            filter.doFilter(new MockHttpServletRequest("PUT", "/cities/1"), expensive.get(), new MockFilterChain());
+        });
+        filter.doFilter(new MockHttpServletRequest("POST", "/cities"), new MockHttpServletResponse(), outerChain);
+
+        assertEquals(200, cheap.get().getStatus());
+        assertEquals(503, expensive.get().getStatus());
+    }
+
+    @Test
+    void shouldNotLimitActuatorEndpoints() throws Exception {
+        ConcurrencyLimitFilter filter = filter(1);
+        AtomicReference<MockHttpServletResponse> health = new AtomicReference<>();
+
+        MockFilterChain outerChain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> {
+            health.set(new MockHttpServletResponse());
+            filter.doFilter(get("/actuator/health"), health.get(), new MockFilterChain());
+        });
+        filter.doFilter(get("/actuator/health"), new MockHttpServletResponse(), outerChain);
+
+        assertEquals(200, health.get().getStatus());
+        assertEquals(0, filter.getLimit(CHEAP).getInFlight());
+    }
+
+    private static ConcurrencyLimitFilter filter(int limit) {
+        ConcurrencyProperties.Limit fixed = new ConcurrencyProperties.Limit(limit, limit, limit, Duration.ofSeconds(1));
+        return new ConcurrencyLimitFilter(new ConcurrencyProperties(1000, 0.9, fixed, fixed));
+    }
+
+    private static MockHttpServletRequest get(String uri, String... parameters) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < parameters.length; i += 2) {
+            request.addParameter(parameters[i], parameters[i + 1]);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,122 @@
+package com.akay.testproject.Controller;
+
+import com.akay.testproject.Config.WebConfig;
+import com.akay.testproject.Service.TableVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalResponsesTest {
+
+    private static final Instant LAST_MODIFIED = Instant.parse("2024-05-01T10:15:30Z");
+    private static final MediaType SMILE = MediaType.valueOf(WebConfig.APPLICATION_SMILE_VALUE);
+    private static final List<MediaType> COMPACT = WebConfig.COMPACT_MEDIA_TYPES;
+
+    private final TableVersions tableVersions = mock(TableVersions.class);
+    private final ConditionalResponses conditionalResponses = new ConditionalResponses(tableVersions,
+            mock(PlatformTransactionManager.class), Duration.ZERO, Duration.ZERO);
+
+    @BeforeEach
+    void setUp() {
+        when(tableVersions.current(any(TableVersions.Table[].class))).thenReturn(new TableVersions.Validators("3-7", LAST_MODIFIED));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutBuildingBodyWhenTagMatches() {
+        AtomicInteger queries = new AtomicInteger();
+        ResponseEntity<String> first = conditionalResponses.respond(request(null), () -> "page-" + queries.incrementAndGet(),
+                TableVersions.Table.COUNTRIES);
+
+        ResponseEntity<String> second = conditionalResponses.respond(request(first.getHeaders().getETag()),
+                () -> "page-" + queries.incrementAndGet(), TableVersions.Table.COUNTRIES);
+
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals("max-age=0, must-revalidate, public, s-maxage=0", first.getHeaders().getCacheControl());
+        assertEquals(LAST_MODIFIED.toEpochMilli(), first.getHeaders().getLastModified());
+        assertEquals(304, second.getStatusCode().value());
+        assertEquals(1, queries.get(), "Body should only be built for the first request");
+    }
+
+    @Test
+    void shouldChangeTagAfterCommittedWrite() {
+        String before = conditionalResponses.respond(request(null), () -> "page",
+                TableVersions.Table.CITIES, TableVersions.Table.COUNTRIES).getHeaders().getETag();
+
+        when(tableVersions.current(any(TableVersions.Table[].class))).thenReturn(new TableVersions.Validators("4-7", LAST_MODIFIED.plusSeconds(1)));
+        ResponseEntity<String> after = conditionalResponses.respond(request(before), () -> "page",
+                TableVersions.Table.CITIES, TableVersions.Table.COUNTRIES);
+
+        assertEquals(200, after.getStatusCode().value());
+    }
+
+    @Test
+    void shouldAnswerIfModifiedSinceFromLastModified() {
+        MockHttpServletRequest unchanged = new MockHttpServletRequest("GET", "/countries");
+        unchanged.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED.toEpochMilli());
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/countries");
+        stale.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED.minusSeconds(1).toEpochMilli());
+
+        assertEquals(304, conditionalResponses.respond(new ServletWebRequest(unchanged, new MockHttpServletResponse()),
+                () -> "page", TableVersions.Table.COUNTRIES).getStatusCode().value());
+        assertEquals(200, conditionalResponses.respond(new ServletWebRequest(stale, new MockHttpServletResponse()),
+                () -> "page", TableVersions.Table.COUNTRIES).getStatusCode().value());
+    }
+
+    @Test
+    void shouldTagEachRepresentationSeparatelyAndVaryByAccept() {
+        ResponseEntity<String> json = conditionalResponses.respond(request(null), () -> "page",
+                TableVersions.Table.COUNTRIES);
+
+        ResponseEntity<String> smile = conditionalResponses.respond(request(json.getHeaders().getETag(), SMILE.toString()),
+                COMPACT, () -> "page", TableVersions.Table.COUNTRIES);
+        ResponseEntity<String> cbor = conditionalResponses.respond(request(smile.getHeaders().getETag(), "application/cbor"),
+                COMPACT, () -> "page", TableVersions.Table.COUNTRIES);
+
+        assertEquals(200, smile.getStatusCode().value());
+        assertEquals(200, cbor.getStatusCode().value());
+        assertEquals("W/\"3-7-smile\"", smile.getHeaders().getETag());
+        assertEquals("W/\"3-7-cbor\"", cbor.getHeaders().getETag());
+        assertEquals(SMILE, smile.getHeaders().getContentType());
+        assertEquals(MediaType.APPLICATION_CBOR, cbor.getHeaders().getContentType());
+        assertEquals(List.of(HttpHeaders.ACCEPT), cbor.getHeaders().getVary());
+    }
+
+    @Test
+    void shouldNegotiateByQualityValue() {
+        assertEquals(MediaType.APPLICATION_CBOR,
+                ConditionalResponses.negotiate("application/x-jackson-smile;q=0.5, application/cbor", COMPACT));
+        assertEquals(SMILE, ConditionalResponses.negotiate("application/cbor;q=0, */*", COMPACT));
+        assertEquals(SMILE, ConditionalResponses.negotiate(null, COMPACT));
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        return request(ifNoneMatch, null);
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/countries");
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
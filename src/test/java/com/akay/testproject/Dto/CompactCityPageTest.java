@@ -0,0 +1,44 @@
+package com.akay.testproject.Dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactCityPageTest {
+
+    private static final List<CityView> CITIES = List.of(
+            new CityView(1L, "Istanbul", "TR"),
+            new CityView(2L, "Berlin", "DE"),
+            new CityView(3L, "Ankara", "TR"),
+            new CityView(4L, "Nowhere", null));
+
+    @Test
+    void shouldWriteEachCountryOnce() {
+        CompactCityPage page = CompactCityPage.from(new PageImpl<>(CITIES, PageRequest.of(0, 20), 4));
+
+        assertEquals(List.of("TR", "DE"), page.countries());
+        assertEquals(new CompactCityPage.Row(3L, "Ankara", 0), page.cities().get(2));
+        assertEquals(CITIES, page.toViews());
+    }
+
+    @Test
+    void shouldRoundTripThroughBinaryFormatsSmallerThanJson() throws Exception {
+        CompactCityPage page = CompactCityPage.from(new PageImpl<>(CITIES, PageRequest.of(0, 20), 4));
+        int json = new ObjectMapper().writeValueAsBytes(new PageImpl<>(CITIES, PageRequest.of(0, 20), 4)).length;
+
+        for (ObjectMapper mapper : List.of(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            byte[] encoded = mapper.writeValueAsBytes(page);
+
+            assertEquals(page, mapper.readValue(encoded, CompactCityPage.class));
+            assertTrue(encoded.length < json / 2, encoded.length + " bytes should be well under the " + json + " bytes of JSON");
+        }
+    }
+}
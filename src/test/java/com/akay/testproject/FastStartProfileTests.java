@@ -0,0 +1,19 @@
+package com.akay.testproject;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Boots with the fast-start profile: lazy initialization and deferred repositories must still let
+ * Hibernate validate the entities against the schema the Flyway migrations produce.
+ */
+@SpringBootTest
+@ActiveProfiles("fast-start")
+class FastStartProfileTests {
+
+    @Test
+    void contextLoadsWithValidatedSchema() {
+    }
+
+}
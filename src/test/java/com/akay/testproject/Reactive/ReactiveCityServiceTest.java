@@ -0,0 +1,129 @@
+package com.akay.testproject.Reactive;
+
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCityServiceTest {
+
+    @Mock
+    private ReactiveCityRepository cityRepository;
+
+    @Mock
+    private ReactiveCountryRepository countryRepository;
+
+    private ReactiveCityService cityService;
+
+    @BeforeEach
+    void setUp() {
+        cityService = new ReactiveCityService(cityRepository, countryRepository, 2);
+    }
+
+    @Test
+    void shouldStreamAllCitiesInKeysetChunks() {
+        Mockito.when(cityRepository.findViewsAfterId(0L, 2)).thenReturn(Flux.just(view(1L), view(2L)));
+        Mockito.when(cityRepository.findViewsAfterId(2L, 2)).thenReturn(Flux.just(view(3L), view(4L)));
+        Mockito.when(cityRepository.findViewsAfterId(4L, 2)).thenReturn(Flux.just(view(5L)));
+
+        List<CityView> cities = cityService.streamAll().collectList().block();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), cities.stream().map(CityView::cityId).toList());
+    }
+
+    @Test
+    void shouldReadAtMostOneChunkAheadOfTheSubscriber() {
+        Mockito.when(cityRepository.findViewsAfterId(0L, 2)).thenReturn(Flux.just(view(1L), view(2L)));
+        Mockito.lenient().when(cityRepository.findViewsAfterId(2L, 2)).thenReturn(Flux.just(view(3L), view(4L)));
+        List<CityView> received = new ArrayList<>();
+
+        cityService.streamAll().subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(2);
+            }
+
+            @Override
+            protected void hookOnNext(CityView city) {
+                received.add(city);
+            }
+        });
+
+        assertEquals(2, received.size());
+        Mockito.verify(cityRepository, Mockito.never()).findViewsAfterId(4L, 2);
+    }
+
+    @Test
+    void shouldMoveCityCountWhenCountryChanges() {
+        Country target = Country.builder().id(7L).code("TR").build();
+        Mockito.when(countryRepository.findByCode("TR")).thenReturn(Mono.just(target));
+        Mockito.when(cityRepository.update(1L, 3L, "Ankara", 7L, null, null))
+                .thenReturn(Mono.just(new ReactiveCityRepository.CityRef(1L, 9L, 4L)));
+        Mockito.when(countryRepository.addToCityCount(Mockito.anyLong(), Mockito.anyLong())).thenReturn(Mono.just(1L));
+
+        City updated = cityService.updateCity(1L, 3L,
+                City.builder().name("Ankara").country(Country.builder().code("TR").build()).build()).block();
+
+        assertEquals(4L, updated.getVersion());
+        assertEquals(7L, updated.getCountry().getId());
+        Mockito.verify(countryRepository).addToCityCount(7L, 1L);
+        Mockito.verify(countryRepository).addToCityCount(9L, -1L);
+    }
+
+    @Test
+    void shouldFailWithOptimisticLockWhenVersionIsStale() {
+        Mockito.when(cityRepository.update(1L, 3L, "Ankara", null, null, null)).thenReturn(Mono.empty());
+        Mockito.when(cityRepository.existsById(1L)).thenReturn(Mono.just(true));
+
+        Mono<City> update = cityService.updateCity(1L, 3L, City.builder().name("Ankara").build());
+
+        assertThatThrownBy(update::block).isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void shouldWriteAndReturnCoordinates() {
+        Mockito.when(cityRepository.insert("Bursa", null, 40.19, 29.06)).thenReturn(Mono.just(5L));
+        Mockito.when(cityRepository.update(5L, 0L, "Bursa", null, 39.93, 32.86))
+                .thenReturn(Mono.just(new ReactiveCityRepository.CityRef(5L, null, 1L)));
+
+        City created = cityService.createCity(City.builder().name("Bursa").latitude(40.19).longitude(29.06).build()).block();
+        City moved = cityService.updateCity(5L, 0L,
+                City.builder().name("Bursa").latitude(39.93).longitude(32.86).build()).block();
+
+        assertEquals(40.19, created.getLatitude());
+        assertEquals(29.06, created.getLongitude());
+        assertEquals(39.93, moved.getLatitude());
+        assertEquals(32.86, moved.getLongitude());
+    }
+
+    @Test
+    void shouldRejectInvalidCoordinatesBeforeWriting() {
+        Mono<City> create = cityService.createCity(City.builder().name("Bursa").latitude(91.0).longitude(29.06).build());
+        Mono<City> update = cityService.updateCity(5L, 0L, City.builder().name("Bursa").latitude(40.19).build());
+
+        assertThatThrownBy(create::block).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(update::block).isInstanceOf(IllegalArgumentException.class);
+        Mockito.verifyNoInteractions(cityRepository, countryRepository);
+    }
+
+    private static CityView view(Long id) {
+        return new CityView(id, "city-" + id, "TR");
+    }
+}
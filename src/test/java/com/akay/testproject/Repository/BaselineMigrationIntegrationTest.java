@@ -0,0 +1,75 @@
+package com.akay.testproject.Repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the baseline migration against tables created by the old IDENTITY mapping, in a schema of
+ * its own, and checks that the ids Hibernate allocates next do not collide with existing rows.
+ */
+@SpringBootTest
+class BaselineMigrationIntegrationTest {
+
+    private static final String SCHEMA = "baseline_migration_test";
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dropSchema();
+        jdbc.execute("create schema " + SCHEMA);
+        jdbc.execute("create table " + SCHEMA + ".countries (id bigint generated by default as identity primary key, " +
+                "name varchar(255), code varchar(255))");
+        jdbc.execute("create table " + SCHEMA + ".cities (id bigint generated by default as identity primary key, " +
+                "name varchar(255), country_id bigint references " + SCHEMA + ".countries (id))");
+        for (int i = 0; i < 70; i++) {
+            jdbc.update("insert into " + SCHEMA + ".countries (name, code) values (?, ?)", "country-" + i, "C" + i);
+        }
+        jdbc.update("insert into " + SCHEMA + ".cities (name, country_id) select 'city-' || g, 1 from generate_series(1, 120) g");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dropSchema();
+    }
+
+    @Test
+    void shouldMoveSequencesPastExistingIds() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .target("1")
+                .load()
+                .migrate();
+
+        assertFirstAllocatedIdAfter(SCHEMA + ".countries_seq", 70);
+        assertFirstAllocatedIdAfter(SCHEMA + ".cities_seq", 120);
+        assertEquals(120L, jdbc.queryForObject("select city_count from " + SCHEMA + ".countries where id = 1", Long.class));
+    }
+
+    private void assertFirstAllocatedIdAfter(String sequence, long maxId) {
+        long next = jdbc.queryForObject("select nextval('" + sequence + "')", Long.class);
+        assertTrue(next - ALLOCATION_SIZE + 1 > maxId, sequence + " hands out ids from " + (next - ALLOCATION_SIZE + 1));
+    }
+
+    private void dropSchema() {
+        jdbc.execute("drop schema if exists " + SCHEMA + " cascade");
+    }
+}
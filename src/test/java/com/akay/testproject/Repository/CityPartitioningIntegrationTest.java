@@ -0,0 +1,206 @@
+package com.akay.testproject.Repository;
+
+import com.akay.testproject.Dto.CitySearchCriteria;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Service.CityService;
+import com.akay.testproject.Service.CountryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the plans of the country-scoped statements the city search and delete actually send, as
+ * recorded by {@link QueryCounter}, against the partitioned cities table, both as custom plans (pruned by the planner) and as the generic plans a reused
+ * prepared statement ends up with (pruned at executor startup, shown as "Subplans Removed"). Only
+ * scan nodes count: a generic delete still lists every partition as a possible target.
+ */
+@SpringBootTest
+class CityPartitioningIntegrationTest {
+
+    private static final Pattern PARTITION_SCAN = Pattern.compile("Scan .*on (cities_p\\d+)");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private CityService cityService;
+
+    @Autowired
+    private CountryCache countryCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Country turkey;
+    private Country germany;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository.deleteAll();
+        countryRepository.deleteAll();
+        // the search resolves codes through the cache, which still holds the previous test's Turkey
+        countryCache.invalidateCode("TR");
+        turkey = countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+        germany = countryRepository.save(Country.builder().name("Germany").code("DE").build());
+        cityService.createCity(City.builder().name("Izmir").country(turkey).build());
+        cityService.createCity(City.builder().name("Berlin").country(germany).build());
+        jdbc.execute("analyze cities");
+    }
+
+    @Test
+    void shouldBeHashPartitioned() {
+        Integer partitions = jdbc.queryForObject(
+                "select count(*) from pg_inherits where inhparent = 'cities'::regclass", Integer.class);
+
+        assertTrue(partitions > 1, "cities should have partitions, found " + partitions);
+        assertEquals("h", jdbc.queryForObject(
+                "select partstrat from pg_partitioned_table where partrelid = 'cities'::regclass", String.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldPruneCountrySearchToOnePartition(boolean genericPlan) {
+        // a full first page, so the search also issues its count query
+        List<String> sql = recorded(() -> cityService.search(
+                new CitySearchCriteria("TR", null, null, null), PageRequest.of(0, 1)));
+        String page = statement(sql, "offset ? rows fetch first ? rows only");
+
+        List<String> plan = plan(genericPlan, page, turkey.getId(), 0, 1);
+
+        assertEquals(List.of(partitionOf("Izmir")), scannedPartitions(plan), String.join("\n", plan));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldPruneCountryCityCountToOnePartition(boolean genericPlan) {
+        List<String> sql = recorded(() -> cityService.search(
+                new CitySearchCriteria("TR", null, null, null), PageRequest.of(0, 1)));
+        String count = statement(sql, "select count(");
+
+        List<String> plan = plan(genericPlan, count, turkey.getId());
+
+        assertEquals(List.of(partitionOf("Izmir")), scannedPartitions(plan), String.join("\n", plan));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void shouldPruneDeleteOfCountryToOnePartition(boolean genericPlan) {
+        List<String> sql = recorded(() -> transactionTemplate.executeWithoutResult(status -> {
+            cityService.deleteCitiesOfCountry(turkey.getId());
+            status.setRollbackOnly();
+        }));
+        String delete = statement(sql, "delete from cities");
+
+        List<String> plan = plan(genericPlan, delete, turkey.getId());
+
+        assertEquals(List.of(partitionOf("Izmir")), scannedPartitions(plan), String.join("\n", plan));
+    }
+
+    @Test
+    void shouldMoveCityToItsNewCountrysPartition() {
+        City izmir = cityRepository.findAll().stream().filter(city -> city.getName().equals("Izmir")).findFirst().orElseThrow();
+        String before = partitionOf("Izmir");
+
+        cityService.updateCity(izmir.getId(), izmir.getVersion(),
+                City.builder().name("Izmir").country(Country.builder().code("DE").build()).build());
+
+        assertNotEquals(before, partitionOf("Izmir"));
+        assertEquals(partitionOf("Berlin"), partitionOf("Izmir"));
+        assertTrue(cityRepository.deleteByCountryIdReturningIds(turkey.getId()).isEmpty());
+    }
+
+    private String partitionOf(String cityName) {
+        return jdbc.queryForObject("select tableoid::regclass::text from cities where name = ?", String.class, cityName);
+    }
+
+    /**
+     * SQL Hibernate sent while the action ran on this thread.
+     */
+    private static List<String> recorded(Runnable action) {
+        QueryCounter.Counts counts = QueryCounter.record();
+        try {
+            action.run();
+        } finally {
+            QueryCounter.stop();
+        }
+        return counts.getSql();
+    }
+
+    private static String statement(List<String> sql, String fragment) {
+        return sql.stream().filter(statement -> statement.contains(fragment)).findFirst()
+                .orElseThrow(() -> new AssertionError("no statement containing '" + fragment + "' in " + sql));
+    }
+
+    /**
+     * Prepares the captured statement, with its JDBC placeholders numbered, and explains its execution
+     * for the given parameters, forcing either a custom plan or a generic one. Explain without analyze
+     * does not run the statement.
+     */
+    private List<String> plan(boolean genericPlan, String sql, Object... parameters) {
+        StringBuilder numbered = new StringBuilder();
+        int placeholders = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++placeholders);
+            } else {
+                numbered.append(c);
+            }
+        }
+        assertEquals(parameters.length, placeholders, sql);
+        String arguments = Arrays.stream(parameters).map(String::valueOf).collect(Collectors.joining(", "));
+        return jdbc.execute((ConnectionCallback<List<String>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set plan_cache_mode = " + (genericPlan ? "force_generic_plan" : "force_custom_plan"));
+                statement.execute("prepare city_query as " + numbered);
+                try (ResultSet rows = statement.executeQuery("explain (costs off) execute city_query(" + arguments + ")")) {
+                    List<String> plan = new ArrayList<>();
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                    return plan;
+                } finally {
+                    statement.execute("deallocate city_query");
+                    statement.execute("reset plan_cache_mode");
+                }
+            }
+        });
+    }
+
+    private static List<String> scannedPartitions(List<String> plan) {
+        List<String> partitions = new ArrayList<>();
+        for (String line : plan) {
+            Matcher matcher = PARTITION_SCAN.matcher(line);
+            if (matcher.find()) {
+                partitions.add(matcher.group(1));
+            }
+        }
+        return partitions;
+    }
+}
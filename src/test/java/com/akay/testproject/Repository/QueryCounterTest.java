@@ -0,0 +1,54 @@
+package com.akay.testproject.Repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCounterTest {
+
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    void shouldCountStatementsAndEntityLoadsOnCurrentThread() {
+        QueryCounter.Counts counts = QueryCounter.start();
+
+        assertEquals("select 1", queryCounter.inspect("select 1"));
+        queryCounter.inspect("select 2");
+        queryCounter.onLoad(new Object(), (Object) 1L, new Object[0], new String[0], null);
+
+        assertEquals(2, counts.getStatements());
+        assertEquals(1, counts.getEntityLoads());
+    }
+
+    @Test
+    void shouldKeepSqlOnlyWhenRecording() {
+        QueryCounter.Counts counted = QueryCounter.start();
+        queryCounter.inspect("select 1");
+        QueryCounter.Counts recorded = QueryCounter.record();
+        queryCounter.inspect("select 2");
+
+        assertEquals(List.of(), counted.getSql());
+        assertEquals(List.of("select 2"), recorded.getSql());
+    }
+
+    @Test
+    void shouldIgnoreStatementsOutsideOfCountingScope() throws InterruptedException {
+        QueryCounter.Counts counts = QueryCounter.start();
+
+        Thread other = new Thread(() -> queryCounter.inspect("select 1"));
+        other.start();
+        other.join();
+        QueryCounter.stop();
+        queryCounter.inspect("select 2");
+
+        assertEquals(0, counts.getStatements());
+    }
+}
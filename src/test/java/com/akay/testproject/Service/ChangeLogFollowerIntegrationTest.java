@@ -0,0 +1,115 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.BoundingBox;
+import com.akay.testproject.Dto.CityLocation;
+import com.akay.testproject.Dto.CitySuggestion;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CityRepository;
+import com.akay.testproject.Repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ChangeLogFollowerIntegrationTest {
+
+    private static final BoundingBox MARMARA = new BoundingBox(26, 39, 31, 42);
+
+    @Autowired
+    private ChangeLogFollower changeLogFollower;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private CityService cityService;
+
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Country country;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository.deleteAll();
+        countryRepository.deleteAll();
+        country = countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+        changeLogFollower.follow();
+    }
+
+    @Test
+    void shouldApplyWritesMadeOutsideTheServicesToTheGeoIndex() {
+        Long bursa = jdbc.queryForObject("insert into cities (id, name, country_id, latitude, longitude) " +
+                "values (nextval('cities_seq'), 'Bursa', ?, 40.19, 29.06) returning id", Long.class, country.getId());
+        assertThat(cityService.findWithin(MARMARA, 10)).isEmpty();
+
+        changeLogFollower.follow();
+        assertThat(cityService.findWithin(MARMARA, 10)).extracting(CityLocation::id).containsExactly(bursa);
+
+        jdbc.update("update cities set latitude = 39.93, longitude = 32.86 where id = ?", bursa);
+        changeLogFollower.follow();
+        assertThat(cityService.findWithin(MARMARA, 10)).isEmpty();
+        assertThat(cityService.findNearby(39.9, 32.8, 1)).singleElement().satisfies(city -> assertThat(city.id()).isEqualTo(bursa));
+
+        jdbc.update("delete from cities where id = ?", bursa);
+        changeLogFollower.follow();
+        assertThat(cityService.findNearby(39.9, 32.8, 1)).isEmpty();
+    }
+
+    @Test
+    void shouldApplyWritesMadeOutsideTheServicesToTheNameIndex() {
+        Long bursa = jdbc.queryForObject("insert into cities (id, name, country_id) " +
+                "values (nextval('cities_seq'), 'Bursa', ?) returning id", Long.class, country.getId());
+        changeLogFollower.follow();
+        assertThat(cityService.suggest("bur", 10)).extracting(CitySuggestion::id).containsExactly(bursa);
+
+        jdbc.update("update cities set name = 'Prusa' where id = ?", bursa);
+        changeLogFollower.follow();
+        assertThat(cityService.suggest("bur", 10)).isEmpty();
+        assertThat(cityService.suggest("pru", 10)).extracting(CitySuggestion::name).containsExactly("Prusa");
+
+        jdbc.update("delete from cities where id = ?", bursa);
+        changeLogFollower.follow();
+        assertThat(cityService.suggest("pru", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateCachedCountriesChangedOutsideTheServices() {
+        assertThat(countryService.findByCode("TR")).hasValueSatisfying(cached -> assertThat(cached.getName()).isEqualTo("Turkey"));
+
+        jdbc.update("update countries set name = 'Türkiye' where id = ?", country.getId());
+        changeLogFollower.follow();
+        assertThat(countryService.findByCode("TR")).hasValueSatisfying(cached -> assertThat(cached.getName()).isEqualTo("Türkiye"));
+
+        jdbc.update("delete from countries where id = ?", country.getId());
+        changeLogFollower.follow();
+        assertThat(countryService.findByCode("TR")).isEmpty();
+    }
+
+    @Test
+    void shouldRebuildWhenItsPositionWasPurged() {
+        Long bursa = jdbc.queryForObject("insert into cities (id, name, country_id, latitude, longitude) " +
+                "values (nextval('cities_seq'), 'Bursa', ?, 40.19, 29.06) returning id", Long.class, country.getId());
+        changeLog.purgeOlderThan(Instant.now().plusSeconds(60));
+
+        changeLogFollower.follow();
+
+        assertThat(cityService.findWithin(MARMARA, 10)).extracting(CityLocation::id).containsExactly(bursa);
+        assertThat(cityService.suggest("bur", 10)).extracting(CitySuggestion::id).containsExactly(bursa);
+    }
+}
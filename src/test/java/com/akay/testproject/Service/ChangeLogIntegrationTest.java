@@ -0,0 +1,184 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.Change;
+import com.akay.testproject.Dto.ChangeFeed;
+import com.akay.testproject.Dto.CityLocation;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CityRepository;
+import com.akay.testproject.Repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ChangeLogIntegrationTest {
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private CityService cityService;
+
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Country country;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository.deleteAll();
+        countryRepository.deleteAll();
+        country = countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+    }
+
+    @Test
+    void shouldReturnLatestStateOfEachChangedCity() {
+        String head = cityService.findChanges(null, 100).next();
+        City istanbul = cityService.createCity(City.builder().name("Istanbul").country(country).build());
+        City ankara = cityService.createCity(City.builder().name("Ankara").country(country).build());
+        cityService.updateCity(istanbul.getId(), istanbul.getVersion(),
+                City.builder().name("Constantinople").country(country).latitude(41.0).longitude(29.0).build());
+        cityService.deleteCity(ankara.getId());
+
+        ChangeFeed<CityLocation> feed = cityService.findChanges(head, 100);
+
+        assertThat(feed.changes())
+                .extracting(Change::id, Change::type)
+                .containsExactly(tuple(istanbul.getId(), Change.Type.UPSERT), tuple(ankara.getId(), Change.Type.DELETE));
+        assertThat(feed.changes().get(0).current().name()).isEqualTo("Constantinople");
+        assertThat(feed.changes().get(0).current().latitude()).isEqualTo(41.0);
+        assertThat(feed.hasMore()).isFalse();
+        assertThat(cityService.findChanges(feed.next(), 100).changes()).isEmpty();
+    }
+
+    @Test
+    void shouldPageThroughChangesInBatches() {
+        String head = cityService.findChanges(null, 100).next();
+        List<City> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(City.builder().name("City " + i).country(country).build());
+        }
+        cityService.createCities(created);
+
+        List<Long> seen = new ArrayList<>();
+        String since = head;
+        ChangeFeed<CityLocation> feed;
+        int batches = 0;
+        do {
+            feed = cityService.findChanges(since, 2);
+            feed.changes().forEach(change -> seen.add(change.id()));
+            since = feed.next();
+            batches++;
+        } while (feed.hasMore());
+
+        assertThat(seen).containsExactlyElementsOf(created.stream().map(City::getId).toList());
+        assertThat(batches).isEqualTo(3);
+    }
+
+    @Test
+    void shouldHoldBackChangesBehindAnOpenTransaction() throws Exception {
+        Country germany = countryRepository.save(Country.builder().name("Germany").code("DE").build());
+        String head = cityService.findChanges(null, 100).next();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<City> slow = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            City city = cityService.createCity(City.builder().name("Slow").country(country).build());
+            written.countDown();
+            await(release);
+            return city;
+        }));
+        assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+        // another country, so the city count update does not wait on the open transaction
+        City fast = cityService.createCity(City.builder().name("Fast").country(germany).build());
+
+        ChangeFeed<CityLocation> whileOpen = cityService.findChanges(head, 100);
+        release.countDown();
+        City slowCity = slow.get(10, TimeUnit.SECONDS);
+        ChangeFeed<CityLocation> afterCommit = cityService.findChanges(whileOpen.next(), 100);
+
+        assertThat(whileOpen.changes()).isEmpty();
+        assertThat(afterCommit.changes()).extracting(Change::id).containsExactly(slowCity.getId(), fast.getId());
+    }
+
+    @Test
+    void shouldRecordCountryWrites() {
+        String head = countryService.findChanges(null, 100).next();
+        Country germany = countryService.createCountry(Country.builder().name("Germany").code("DE").build());
+        countryService.updateCountry(germany.getId(), germany.getVersion(),
+                Country.builder().name("Deutschland").code("DE").build());
+        countryService.deleteCountryWithCities(country.getId());
+
+        ChangeFeed<Country> feed = countryService.findChanges(head, 100);
+
+        assertThat(feed.changes())
+                .extracting(Change::id, Change::type)
+                .containsExactly(tuple(germany.getId(), Change.Type.UPSERT), tuple(country.getId(), Change.Type.DELETE));
+        assertThat(feed.changes().get(0).current().getName()).isEqualTo("Deutschland");
+    }
+
+    @Test
+    void shouldRecordWritesMadeOutsideTheServices() {
+        String cityHead = cityService.findChanges(null, 100).next();
+        String countryHead = countryService.findChanges(null, 100).next();
+        Long id = jdbc.queryForObject("insert into cities (id, name, country_id) " +
+                "values (nextval('cities_seq'), 'Bursa', ?) returning id", Long.class, country.getId());
+        jdbc.update("update cities set name = 'Prusa' where id = ?", id);
+        jdbc.update("update countries set city_count = city_count + 1 where id = ?", country.getId());
+
+        ChangeFeed<CityLocation> cities = cityService.findChanges(cityHead, 100);
+
+        assertThat(cities.changes()).extracting(Change::id, Change::type).containsExactly(tuple(id, Change.Type.UPSERT));
+        assertThat(cities.changes().get(0).current().name()).isEqualTo("Prusa");
+        assertThat(countryService.findChanges(countryHead, 100).changes()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectTokensOlderThanRetention() {
+        String head = cityService.findChanges(null, 100).next();
+        cityService.createCity(City.builder().name("Istanbul").country(country).build());
+        String afterFirst = cityService.findChanges(head, 100).next();
+        cityService.createCity(City.builder().name("Ankara").country(country).build());
+
+        changeLog.purgeOlderThan(Instant.now().plusSeconds(60));
+
+        assertThatThrownBy(() -> cityService.findChanges(head, 100)).isInstanceOf(ChangeTokenExpiredException.class);
+        assertThatThrownBy(() -> cityService.findChanges(afterFirst, 100)).isInstanceOf(ChangeTokenExpiredException.class);
+        String restarted = cityService.findChanges(null, 100).next();
+        assertThat(cityService.findChanges(restarted, 100).changes()).isEmpty();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.CityExportRow;
+import com.akay.testproject.Repository.CityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityExportServiceTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    private CityExportService cityExportService;
+
+    @BeforeEach
+    void setUp() {
+        cityExportService = new CityExportService(cityRepository, new ObjectMapper());
+    }
+
+    @Test
+    void shouldExportCsvInImportLayout() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito.when(cityRepository.streamExportRows()).thenReturn(Stream.of(
+                new CityExportRow(1L, "Istanbul", "TR", 41.0082, 28.9784),
+                new CityExportRow(2L, "Izmir, \"Aegean\"", "TR", null, null),
+                new CityExportRow(3L, "Nowhere", null, null, null)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = cityExportService.exportCities(ImportFormat.CSV, out);
+
+        assertEquals(3, exported, "Every row should be exported");
+        assertEquals("""
+                name,countryCode,id,latitude,longitude
+                Istanbul,TR,1,41.0082,28.9784
+                "Izmir, ""Aegean""\",TR,2,,
+                Nowhere,,3,,
+                """, out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get(), "The cursor should be closed");
+    }
+
+    @Test
+    void shouldExportOneJsonObjectPerLine() throws Exception {
+        Mockito.when(cityRepository.streamExportRows()).thenReturn(Stream.of(
+                new CityExportRow(1L, "Istanbul", "TR", null, null),
+                new CityExportRow(2L, "Ankara", "TR", 39.9334, 32.8597)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cityExportService.exportCities(ImportFormat.NDJSON, out);
+
+        assertEquals("""
+                {"id":1,"name":"Istanbul","countryCode":"TR"}
+                {"id":2,"name":"Ankara","countryCode":"TR","latitude":39.9334,"longitude":32.8597}
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.BoundingBox;
+import com.akay.testproject.Dto.CityPoint;
+import com.akay.testproject.Repository.CityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class CityGeoIndexTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    private CityGeoIndex cityGeoIndex;
+
+    @BeforeEach
+    void setUp() {
+        cityGeoIndex = new CityGeoIndex(cityRepository, 5.0, 1000);
+    }
+
+    @Test
+    void shouldFindSameNeighboursAsBruteForceEverywhereOnTheGlobe() {
+        Random random = new Random(42);
+        List<CityPoint> points = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            // float coordinates, as the index stores them, so distances compare exactly
+            points.add(new CityPoint(id, (double) (float) (random.nextDouble() * 180 - 90),
+                    (double) (float) (random.nextDouble() * 360 - 180)));
+        }
+        Mockito.when(cityRepository.findPointsAfterId(0L, Limit.of(1000))).thenReturn(points.subList(0, 1000));
+        Mockito.when(cityRepository.findPointsAfterId(1000L, Limit.of(1000))).thenReturn(points.subList(1000, 2000));
+        Mockito.when(cityRepository.findPointsAfterId(2000L, Limit.of(1000))).thenReturn(points.subList(2000, 3000));
+        Mockito.when(cityRepository.findPointsAfterId(3000L, Limit.of(1000))).thenReturn(List.of());
+        cityGeoIndex.rebuild();
+
+        double[][] queries = {{0, 0}, {41.0, 28.9}, {89.9, 10}, {-89.5, -170}, {10, 179.9}, {-20, -179.9}, {60, 0}};
+        for (double[] query : queries) {
+            List<Long> expected = points.stream()
+                    .sorted(Comparator.comparingDouble((CityPoint p) -> GeoPoints.distanceKm(query[0], query[1], p.latitude(), p.longitude()))
+                            .thenComparing(CityPoint::id))
+                    .limit(7)
+                    .map(CityPoint::id)
+                    .toList();
+
+            List<Long> nearest = cityGeoIndex.nearest(query[0], query[1], 7).stream().map(CityGeoIndex.Neighbour::id).toList();
+
+            assertEquals(expected, nearest, "Neighbours of " + query[0] + "," + query[1]);
+        }
+    }
+
+    @Test
+    void shouldMoveAndRemoveCities() {
+        cityGeoIndex.put(1L, 41.0, 29.0, null, null);
+        cityGeoIndex.put(2L, 39.9, 32.8, null, null);
+
+        cityGeoIndex.put(1L, 52.5, 13.4, 41.0, 29.0);
+        assertEquals(List.of(2L), ids(cityGeoIndex.nearest(41.0, 29.0, 1)));
+        assertEquals(List.of(1L), ids(cityGeoIndex.nearest(52.0, 13.0, 1)));
+
+        cityGeoIndex.remove(1L, 52.5, 13.4);
+        assertEquals(List.of(2L), ids(cityGeoIndex.nearest(52.0, 13.0, 5)));
+    }
+
+    @Test
+    void shouldFindCitiesInBoxCrossingAntimeridian() {
+        cityGeoIndex.put(1L, -17.7, 178.4, null, null);
+        cityGeoIndex.put(2L, -13.8, -171.8, null, null);
+        cityGeoIndex.put(3L, -17.5, 0.0, null, null);
+
+        List<Long> within = cityGeoIndex.within(new BoundingBox(170, -25, -165, -10), 10);
+
+        assertEquals(List.of(1L, 2L), within.stream().sorted().toList());
+        assertEquals(List.of(1L), cityGeoIndex.within(new BoundingBox(170, -25, -165, -10), 1));
+    }
+
+    @Test
+    void shouldReturnSmallestIdsInsideBoxWhenLimited() {
+        for (long id = 20; id >= 1; id--) {
+            cityGeoIndex.put(id, -60.0 + 6 * id, 10.0 * id - 100, null, null);
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), cityGeoIndex.within(new BoundingBox(-180, -90, 180, 90), 3));
+        assertEquals(List.of(5L, 6L), cityGeoIndex.within(new BoundingBox(-55, -35, -35, -20), 2));
+    }
+
+    @Test
+    void shouldReplaceCitiesWithoutKnowingWhereTheyWere() {
+        cityGeoIndex.put(1L, 41.0, 29.0, null, null);
+        cityGeoIndex.put(2L, 39.9, 32.8, null, null);
+        cityGeoIndex.put(3L, 38.4, 27.1, null, null);
+
+        cityGeoIndex.replace(List.of(3L), List.of(new CityPoint(1L, 52.5, 13.4), new CityPoint(2L, null, null)));
+
+        assertEquals(List.of(1L), ids(cityGeoIndex.nearest(41.0, 29.0, 5)));
+        assertEquals(List.of(1L), cityGeoIndex.within(new BoundingBox(-180, -90, 180, 90), 10));
+    }
+
+    @Test
+    void shouldKeepWritesMadeWhileRebuilding() {
+        Mockito.when(cityRepository.findPointsAfterId(0L, Limit.of(1000))).thenAnswer(invocation -> {
+            cityGeoIndex.put(2L, 10.0, 10.0, null, null);
+            cityGeoIndex.remove(1L, 20.0, 20.0);
+            return List.of(new CityPoint(1L, 20.0, 20.0));
+        });
+
+        cityGeoIndex.rebuild();
+
+        assertEquals(List.of(2L), ids(cityGeoIndex.nearest(20.0, 20.0, 5)));
+        assertTrue(cityGeoIndex.within(new BoundingBox(-180, -90, 180, 90), 10).contains(2L));
+    }
+
+    private static List<Long> ids(List<CityGeoIndex.Neighbour> neighbours) {
+        return neighbours.stream().map(CityGeoIndex.Neighbour::id).toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.ChunkResult;
+import com.akay.testproject.Dto.ImportProgress;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityImportServiceTest {
+
+    @Mock
+    private CityService cityService;
+
+    @Mock
+    private CountryCache countryCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CityImportService cityImportService;
+
+    private Country country;
+
+    @BeforeEach
+    void setUp() {
+        cityImportService = new CityImportService(cityService, countryCache, objectMapper, 2, 64);
+
+        country = Country.builder()
+                .id(1L)
+                .name("Turkey")
+                .code("TR")
+                .build();
+    }
+
+    @Test
+    void shouldImportCsvInChunksAndReportRejectedRows() throws Exception {
+        String csv = """
+                name,countryCode
+                Istanbul,TR
+                Ankara,XX
+                "Izmir, Aegean",TR
+                """;
+
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
+        Mockito.when(countryCache.findByCode("XX")).thenReturn(Optional.empty());
+        Mockito.when(cityService.createCitiesChunk(ArgumentMatchers.anyInt(), ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> ChunkResult.written(invocation.getArgument(0),
+                        invocation.<List<City>>getArgument(1).size()));
+
+        List<ImportProgress> progress = importCities(csv, ImportFormat.CSV);
+
+        assertEquals(3, progress.size(), "Two chunks and a final summary should be streamed");
+        assertEquals(1, progress.get(0).written(), "First chunk should write the valid row");
+        assertEquals(1, progress.get(0).failed(), "First chunk should reject the unknown country");
+        assertEquals("line 3: Country not found with code XX", progress.get(0).errors().get(0));
+        assertEquals(1, progress.get(1).written(), "Quoted name should be imported");
+        assertTrue(progress.get(2).done(), "Last line should mark the import as done");
+        assertEquals(2, progress.get(2).totalWritten(), "Total written should match");
+        assertEquals(1, progress.get(2).totalFailed(), "Total failed should match");
+    }
+
+    @Test
+    void shouldReportFailedChunkWhenImportNdjson() throws Exception {
+        String ndjson = """
+                {"name":"Istanbul","countryCode":"TR"}
+                {"name":"Ankara","countryCode":"TR"}
+                """;
+
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
+        Mockito.when(cityService.createCitiesChunk(ArgumentMatchers.eq(0), ArgumentMatchers.anyList()))
+                .thenReturn(ChunkResult.failed(0, 2, "connection reset"));
+
+        List<ImportProgress> progress = importCities(ndjson, ImportFormat.NDJSON);
+
+        assertEquals(2, progress.size(), "One chunk and a final summary should be streamed");
+        assertEquals(2, progress.get(0).failed(), "Whole chunk should be reported as failed");
+        assertEquals("chunk 0: connection reset", progress.get(0).errors().get(0));
+        assertEquals(0, progress.get(1).totalWritten(), "Nothing should be written");
+    }
+
+    @Test
+    void shouldRejectOversizeLineBeforeAnyProgressIsWritten() {
+        String csv = "Istanbul,TR\r\n" + "x".repeat(65) + ",TR\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> cityImportService.importCities(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV, out));
+
+        assertEquals("Line 2 is longer than 64 characters", e.getMessage());
+        assertEquals(0, out.size(), "Nothing should be streamed, so the error can still become a 400");
+        Mockito.verifyNoInteractions(cityService);
+    }
+
+    @Test
+    void shouldWriteRowsReadSoFarWhenOversizeLineFollowsProgress() throws Exception {
+        String ndjson = """
+                {"name":"Istanbul","countryCode":"TR"}
+                {"name":"Ankara","countryCode":"TR"}
+                {"name":"Izmir","countryCode":"TR"}
+                """ + "{\"name\":\"" + "x".repeat(100) + "\"}\n{\"name\":\"Bursa\",\"countryCode\":\"TR\"}\n";
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
+        Mockito.when(cityService.createCitiesChunk(ArgumentMatchers.anyInt(), ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> ChunkResult.written(invocation.getArgument(0),
+                        invocation.<List<City>>getArgument(1).size()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(IllegalArgumentException.class, () -> cityImportService.importCities(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        ImportProgress last = objectMapper.readValue(lines[lines.length - 1], ImportProgress.class);
+        assertEquals(2, lines.length, "The stream should end without a final summary");
+        assertEquals(3, last.totalWritten(), "Rows before the oversize line should be written");
+        assertEquals(List.of("Line 4 is longer than 64 characters"), last.errors());
+        assertFalse(last.done());
+    }
+
+    private List<ImportProgress> importCities(String body, ImportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cityImportService.importCities(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, out);
+
+        List<ImportProgress> progress = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            progress.add(objectMapper.readValue(line, ImportProgress.class));
+        }
+        return progress;
+    }
+}
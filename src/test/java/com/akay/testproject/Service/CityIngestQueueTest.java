@@ -0,0 +1,116 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.ChunkResult;
+import com.akay.testproject.Dto.IngestStatus;
+import com.akay.testproject.Entity.City;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityIngestQueueTest {
+
+    @Mock
+    private CityService cityService;
+
+    private CityIngestQueue cityIngestQueue;
+
+    @BeforeEach
+    void setUp() {
+        cityIngestQueue = new CityIngestQueue(cityService, 3, 2, Duration.ofMillis(1), Duration.ofMinutes(1),
+                100, Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void shouldRejectSubmissionsWhenQueueIsFull() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cityIngestQueue.submit(City.builder().name("City " + i).build()).isPresent());
+        }
+        Optional<UUID> rejected = cityIngestQueue.submit(City.builder().name("City 3").build());
+
+        // Assert
+        assertTrue(rejected.isEmpty(), "Submission beyond capacity should be rejected");
+        assertEquals(3, cityIngestQueue.getQueued());
+    }
+
+    @Test
+    public void shouldWriteQueuedCitiesAsOneChunk() {
+        // Arrange
+        City istanbul = City.builder().name("Istanbul").build();
+        City ankara = City.builder().name("Ankara").build();
+        UUID first = cityIngestQueue.submit(istanbul).orElseThrow();
+        UUID second = cityIngestQueue.submit(ankara).orElseThrow();
+        Mockito.when(cityService.createCitiesChunk(ArgumentMatchers.eq(0), ArgumentMatchers.eq(List.of(istanbul, ankara))))
+                .thenAnswer(invocation -> {
+                    istanbul.setId(1L);
+                    ankara.setId(2L);
+                    return ChunkResult.written(0, 2);
+                });
+
+        // Act
+        int written = cityIngestQueue.drainOnce();
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals(IngestStatus.written(first, 1L), cityIngestQueue.status(first).orElseThrow());
+        assertEquals(IngestStatus.written(second, 2L), cityIngestQueue.status(second).orElseThrow());
+        assertEquals(0, cityIngestQueue.getQueued());
+    }
+
+    @Test
+    public void shouldFailBatchAndKeepAcceptingWhenWriteThrows() {
+        // Arrange
+        UUID first = cityIngestQueue.submit(City.builder().name("Istanbul").build()).orElseThrow();
+        Mockito.when(cityService.createCitiesChunk(ArgumentMatchers.anyInt(), ArgumentMatchers.anyList()))
+                .thenThrow(new IllegalStateException("boom"));
+
+        // Act
+        int drained = cityIngestQueue.drainOnce();
+
+        // Assert
+        assertEquals(1, drained);
+        assertEquals(IngestStatus.State.FAILED, cityIngestQueue.status(first).orElseThrow().state());
+        assertTrue(cityIngestQueue.submit(City.builder().name("Ankara").build()).isPresent());
+    }
+
+    @Test
+    public void shouldRejectSubmissionsAfterStop() {
+        // Act
+        cityIngestQueue.stop();
+
+        // Assert
+        assertTrue(cityIngestQueue.submit(City.builder().name("Istanbul").build()).isEmpty());
+    }
+
+    @Test
+    public void shouldRetryRowByRowWhenChunkFails() {
+        // Arrange
+        City istanbul = City.builder().name("Istanbul").build();
+        City unknown = City.builder().name("Nowhere").build();
+        UUID first = cityIngestQueue.submit(istanbul).orElseThrow();
+        UUID second = cityIngestQueue.submit(unknown).orElseThrow();
+        Mockito.when(cityService.createCitiesChunk(ArgumentMatchers.eq(0), ArgumentMatchers.anyList()))
+                .thenReturn(ChunkResult.failed(0, 2, "Country not found with code XX"));
+        Mockito.when(cityService.createCity(istanbul)).thenReturn(City.builder().id(7L).name("Istanbul").build());
+        Mockito.when(cityService.createCity(unknown)).thenThrow(new RuntimeException("Country not found with code XX"));
+
+        // Act
+        cityIngestQueue.drainOnce();
+
+        // Assert
+        assertEquals(IngestStatus.written(first, 7L), cityIngestQueue.status(first).orElseThrow());
+        assertEquals(IngestStatus.failed(second, "Country not found with code XX"), cityIngestQueue.status(second).orElseThrow());
+    }
+}
@@ -0,0 +1,82 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.CitySuggestion;
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Repository.CityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityNameIndexTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    private CityNameIndex cityNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        cityNameIndex = new CityNameIndex(cityRepository, 2);
+    }
+
+    @Test
+    void shouldBuildIndexInBatchesAndMatchPrefixIgnoringCaseAndAccents() {
+        Mockito.when(cityRepository.findNamesAfterId(0L, Limit.of(2))).thenReturn(List.of(
+                new CitySuggestion(1L, "İstanbul"),
+                new CitySuggestion(2L, "Ankara")));
+        Mockito.when(cityRepository.findNamesAfterId(2L, Limit.of(2))).thenReturn(List.of(
+                new CitySuggestion(3L, "Izmir")));
+
+        cityNameIndex.rebuild();
+
+        assertEquals(List.of(new CitySuggestion(1L, "İstanbul"), new CitySuggestion(3L, "Izmir")),
+                cityNameIndex.suggest("i", 10));
+        assertEquals(List.of(new CitySuggestion(1L, "İstanbul")), cityNameIndex.suggest("IST", 10));
+        assertEquals(List.of(new CitySuggestion(2L, "Ankara")), cityNameIndex.suggest("an", 1));
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdatesOnTopOfSnapshot() {
+        Mockito.when(cityRepository.findNamesAfterId(0L, Limit.of(2))).thenReturn(List.of(
+                new CitySuggestion(1L, "Istanbul"),
+                new CitySuggestion(2L, "Ankara")));
+        Mockito.when(cityRepository.findNamesAfterId(2L, Limit.of(2))).thenReturn(List.of());
+
+        cityNameIndex.rebuild();
+
+        cityNameIndex.put(City.builder().id(1L).name("Iskenderun").build());
+        cityNameIndex.put(City.builder().id(4L).name("Isparta").build());
+        cityNameIndex.remove(2L);
+
+        assertEquals(List.of(new CitySuggestion(1L, "Iskenderun"), new CitySuggestion(4L, "Isparta")),
+                cityNameIndex.suggest("is", 10));
+        assertEquals(List.of(), cityNameIndex.suggest("ank", 10));
+    }
+
+    @Test
+    void shouldKeepResultsSortedAcrossCompactions() {
+        Mockito.when(cityRepository.findNamesAfterId(0L, Limit.of(2))).thenReturn(List.of());
+        cityNameIndex.rebuild();
+
+        List<City> cities = new ArrayList<>();
+        for (long id = 1; id <= 25_000; id++) {
+            cities.add(City.builder().id(id).name("City " + id).build());
+        }
+        cityNameIndex.putAll(cities);
+        cityNameIndex.put(City.builder().id(10L).name("Renamed").build());
+
+        assertEquals(List.of(new CitySuggestion(100L, "City 100"), new CitySuggestion(1000L, "City 1000")),
+                cityNameIndex.suggest("city 100", 2));
+        assertEquals(List.of(new CitySuggestion(10L, "Renamed")), cityNameIndex.suggest("ren", 10));
+    }
+}
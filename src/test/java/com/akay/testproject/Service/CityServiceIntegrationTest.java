@@ -1,5 +1,10 @@
 package com.akay.testproject.Service;
 
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.CitySearchCriteria;
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Dto.CursorPage;
+import com.akay.testproject.Dto.CountryCityCount;
 import com.akay.testproject.Entity.City;
 import com.akay.testproject.Entity.Country;
 import com.akay.testproject.Repository.CityRepository;
@@ -12,9 +17,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @SpringBootTest
@@ -29,10 +43,19 @@ public class CityServiceIntegrationTest {
     @Autowired
     private CityService cityService;
 
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     Country country;
 
     @BeforeEach
     void setUp() {
+        cityRepository.deleteAll();
+        countryRepository.deleteAll();
+
          country = Country.builder()
                 .name("Turkey")
                 .code("TR")
@@ -41,6 +64,64 @@ public class CityServiceIntegrationTest {
         country = countryRepository.save(country);
     }
 
+    @Test
+    public void shouldKeepCityCountsUpToDateOnWrites() {
+        Country germany = countryRepository.save(Country.builder().name("Germany").code("DE").build());
+        City ankara = City.builder().name("Ankara").country(country).build();
+        cityService.createCities(List.of(
+                City.builder().name("Istanbul").country(country).build(),
+                ankara,
+                City.builder().name("Berlin").country(germany).build()));
+        City izmir = cityService.createCity(City.builder().name("Izmir").country(country).build());
+
+        cityService.updateCity(izmir.getId(), izmir.getVersion(),
+                City.builder().name("Hamburg").country(Country.builder().id(germany.getId()).build()).build());
+        cityService.deleteCities(List.of(ankara.getId()));
+
+        assertThat(countryService.findCityCount(country.getId())).get()
+                .extracting(CountryCityCount::cityCount).isEqualTo(1L);
+        assertThat(countryService.stats(10).top())
+                .extracting(CountryCityCount::countryCode, CountryCityCount::cityCount)
+                .containsExactly(tuple("DE", 2L), tuple("TR", 1L));
+    }
+
+    @Test
+    public void shouldRebuildDriftedCityCounts() {
+        cityService.createCity(City.builder().name("Istanbul").country(country).build());
+        countryRepository.addToCityCount(country.getId(), 5);
+
+        int corrected = countryService.rebuildCityCounts();
+
+        assertThat(corrected).isEqualTo(1);
+        assertThat(countryService.findCityCount(country.getId())).get()
+                .extracting(CountryCityCount::cityCount).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldSkipRebuildWhileAnotherInstanceHoldsIt() throws Exception {
+        cityService.createCity(City.builder().name("Istanbul").country(country).build());
+        countryRepository.addToCityCount(country.getId(), 5);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherInstance = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            countryRepository.tryLockCityCountRebuild();
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        int whileHeld = countryService.rebuildCityCounts();
+        release.countDown();
+        otherInstance.get(10, TimeUnit.SECONDS);
+
+        assertThat(whileHeld).isZero();
+        assertThat(countryService.rebuildCityCounts()).isEqualTo(1);
+    }
+
     @Test
     public void shouldCreateCityWithCity() {
         City city = City.builder()
@@ -124,5 +205,73 @@ public class CityServiceIntegrationTest {
         assertThat(cities.getContent().get(2).getName()).isEqualTo("Izmir");
     }
 
+    @Test
+    public void shouldFindAllCityViewsWithPageable() {
+        cityRepository.deleteAll();
+
+        cityRepository.save(City.builder().name("Istanbul").country(country).build());
+        cityRepository.save(City.builder().name("Ankara").country(country).build());
+
+        Page<CityView> cities = cityService.findAllViews(PageRequest.of(0, 10, Sort.by("name")));
+
+        assertThat(cities.getTotalElements()).isEqualTo(2);
+        assertThat(cities.getContent()).extracting(CityView::cityName).containsExactly("Ankara", "Istanbul");
+        assertThat(cities.getContent()).extracting(CityView::countryCode).containsOnly("TR");
+    }
+
+    @Test
+    public void shouldScrollPastCitiesWithoutNameInNameOrder() {
+        City izmir = cityRepository.save(City.builder().name("Izmir").country(country).build());
+        City firstUnnamed = cityRepository.save(City.builder().country(country).build());
+        City ankara = cityRepository.save(City.builder().name("Ankara").country(country).build());
+        City secondUnnamed = cityRepository.save(City.builder().country(country).build());
+        City bursa = cityRepository.save(City.builder().name("Bursa").country(country).build());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<City> page = cityService.scroll(cursor, KeysetOrder.NAME, 2);
+            page.content().forEach(city -> seen.add(city.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(ankara.getId(), bursa.getId(), izmir.getId(),
+                firstUnnamed.getId(), secondUnnamed.getId());
+    }
+
+    @Test
+    public void shouldSearchCitiesByCountryCodeAndNamePrefix() {
+        Country germany = countryRepository.save(Country.builder().name("Germany").code("DE").build());
+
+        cityRepository.save(City.builder().name("Istanbul").country(country).build());
+        cityRepository.save(City.builder().name("Izmir").country(country).build());
+        cityRepository.save(City.builder().name("Ankara").country(country).build());
+        cityRepository.save(City.builder().name("Ingolstadt").country(germany).build());
+
+        Page<CityView> cities = cityService.search(new CitySearchCriteria("TR", "I", null, null),
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        assertThat(cities.getTotalElements()).isEqualTo(2);
+        assertThat(cities.getContent()).extracting(CityView::cityName).containsExactly("Istanbul", "Izmir");
+        assertThat(cityService.search(new CitySearchCriteria("XX", null, null, null), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    public void shouldCreateCitiesInBulk() {
+        cityRepository.deleteAll();
+
+        List<City> cities = List.of(
+                City.builder().name("Istanbul").country(country).build(),
+                City.builder().name("Ankara").country(country).build(),
+                City.builder().name("Izmir").country(country).build()
+        );
+
+        BulkResult result = cityService.createCities(cities);
+
+        assertThat(result.written()).isEqualTo(3);
+        assertThat(result.failed()).isZero();
+        assertThat(cityRepository.count()).isEqualTo(3);
+    }
+
 
 }
@@ -1,8 +1,15 @@
 package com.akay.testproject.Service;
 
+import com.akay.testproject.Dto.BulkResult;
+import com.akay.testproject.Dto.CitySearchCriteria;
+import com.akay.testproject.Dto.CityView;
+import com.akay.testproject.Dto.CursorPage;
 import com.akay.testproject.Entity.City;
 import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CityCountryRef;
 import com.akay.testproject.Repository.CityRepository;
+import com.akay.testproject.Repository.CountryRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,10 +19,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,13 +39,35 @@ class CityServiceTest {
     @Mock
     private CityRepository cityRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CountryCache countryCache;
+
+    @Mock
+    private CityNameIndex cityNameIndex;
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private CityGeoIndex cityGeoIndex;
+
+    @Mock
+    private ChangeLog changeLog;
+
     @InjectMocks
     private CityService cityService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        cityService = new CityService(cityRepository);
+        cityService = new CityService(cityRepository, countryRepository, new ChunkedWriter(new TransactionTemplate(transactionManager), entityManager, 2),
+                countryCache, cityNameIndex, cityGeoIndex, changeLog);
     }
 
     @Test
@@ -50,6 +82,7 @@ class CityServiceTest {
                 .country(country)
                 .build();
 
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
         Mockito.when(cityRepository.save(newCity)).thenReturn(newCity);
 
         City result = cityService.createCity(newCity);
@@ -59,6 +92,7 @@ class CityServiceTest {
         assertEquals(newCity.getCountry(), result.getCountry(), "Country is not equal");
 
         Mockito.verify(cityRepository, Mockito.times(1)).save(newCity);
+        Mockito.verify(cityNameIndex, Mockito.times(1)).put(newCity);
     }
 
     @Test
@@ -83,7 +117,9 @@ class CityServiceTest {
         // Act
         Mockito.when(cityRepository.findById(existCity.getId())).thenReturn(Optional.of(existCity));
 
-        Mockito.when(cityRepository.save(existCity)).thenReturn(existCity);
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
+
+        Mockito.when(cityRepository.saveAndFlush(existCity)).thenReturn(existCity);
 
         City returnCity = cityService.updateCity(existCity.getId(), cityDetails);
 
@@ -92,7 +128,7 @@ class CityServiceTest {
         assertEquals(cityDetails.getName(), returnCity.getName(), "City name should be updated");
 
         Mockito.verify(cityRepository, Mockito.times(1)).findById(existCity.getId());
-        Mockito.verify(cityRepository, Mockito.times(1)).save(existCity);
+        Mockito.verify(cityRepository, Mockito.times(1)).saveAndFlush(existCity);
     }
 
     @Test
@@ -113,13 +149,32 @@ class CityServiceTest {
         Mockito.verify(cityRepository, Mockito.times(1)).findById(notExistedId);
     }
 
+    @Test
+    void shouldThrowExceptionWhenCreateCityWithUnknownCountry() {
+        City city = City.builder()
+                .name("Istanbul")
+                .country(Country.builder().id(44L).build())
+                .build();
+
+        Mockito.when(countryCache.findById(44L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cityService.createCity(city))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Country not found with id 44");
+
+        Mockito.verify(cityRepository, Mockito.never()).save(city);
+    }
+
     @Test
     public void shouldDeleteCityWithId() {
         Long cityId = 1L;
+        Mockito.when(cityRepository.deleteByIdReturningCountry(cityId)).thenReturn(List.of(ref(cityId, 9L)));
 
         cityService.deleteCity(cityId);
 
-        Mockito.verify(cityRepository, Mockito.times(1)).deleteById(cityId);
+        Mockito.verify(cityRepository, Mockito.times(1)).deleteByIdReturningCountry(cityId);
+        Mockito.verify(cityNameIndex, Mockito.times(1)).removeAll(List.of(cityId));
+        Mockito.verify(countryRepository, Mockito.times(1)).addToCityCount(9L, -1);
     }
 
     @Test
@@ -153,6 +208,173 @@ class CityServiceTest {
 
 
 
+    @Test
+    public void shouldFindAllCityViewsWithPageable() {
+        List<CityView> views = List.of(
+                new CityView(1L, "Istanbul", "TR"),
+                new CityView(2L, "Ankara", "TR")
+        );
+
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<CityView> viewPage = new PageImpl<>(views, pageable, views.size());
+
+        Mockito.when(cityRepository.findAllViews(pageable)).thenReturn(viewPage);
+
+        Page<CityView> result = cityService.findAllViews(pageable);
+
+        assertEquals(views, result.getContent(), "City views should match");
+
+        Mockito.verify(cityRepository, Mockito.times(1)).findAllViews(pageable);
+    }
+
+    @Test
+    public void shouldReturnEmptyPageWhenSearchCitiesWithUnknownCountryCode() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Mockito.when(countryCache.findByCode("XX")).thenReturn(Optional.empty());
+
+        Page<CityView> result = cityService.search(new CitySearchCriteria("XX", null, null, null), pageable);
+
+        assertTrue(result.isEmpty(), "Unknown country should not match any city");
+
+        Mockito.verifyNoInteractions(cityRepository);
+    }
+
+    @Test
+    public void shouldReportFailedChunkWhenCreateCities() {
+        Country country = Country.builder()
+                .name("Turkey")
+                .code("TR")
+                .build();
+
+        List<City> cities = List.of(
+                City.builder().name("Istanbul").country(country).build(),
+                City.builder().name("Ankara").country(country).build(),
+                City.builder().name("Izmir").country(country).build()
+        );
+
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
+        Mockito.lenient().when(cityRepository.saveAll(cities.subList(2, 3))).thenThrow(new RuntimeException("duplicate key"));
+
+        BulkResult result = cityService.createCities(cities);
+
+        assertEquals(3, result.total(), "Total should match");
+        assertEquals(2, result.written(), "First chunk should be written");
+        assertEquals(1, result.failed(), "Second chunk should fail");
+        assertEquals("duplicate key", result.chunks().get(1).error(), "Chunk error should be reported");
+
+        Mockito.verify(cityRepository, Mockito.times(1)).saveAll(cities.subList(0, 2));
+    }
+
+    @Test
+    public void shouldScrollCitiesByNameWithCursor() {
+        Country country = Country.builder()
+                .name("Turkey")
+                .code("TR")
+                .build();
+
+        List<City> firstRows = List.of(
+                City.builder().id(7L).name("Ankara").country(country).build(),
+                City.builder().id(3L).name("Istanbul").country(country).build(),
+                City.builder().id(5L).name("Izmir").country(country).build()
+        );
+
+        Mockito.when(cityRepository.findFirstOrderByName(Limit.of(3))).thenReturn(firstRows);
+
+        CursorPage<City> firstPage = cityService.scroll(null, KeysetOrder.NAME, 2);
+
+        assertEquals(2, firstPage.content().size(), "Extra row should not be returned");
+        assertNotNull(firstPage.nextCursor(), "Next cursor should be present");
+
+        Mockito.when(cityRepository.findAfterOrderByName("Istanbul", 3L, Limit.of(3))).thenReturn(firstRows.subList(2, 3));
+
+        CursorPage<City> secondPage = cityService.scroll(firstPage.nextCursor(), KeysetOrder.ID, 2);
+
+        assertEquals("Izmir", secondPage.content().get(0).getName(), "Second page should continue after the cursor");
+        assertNull(secondPage.nextCursor(), "Last page should not have a next cursor");
+    }
+
+    @Test
+    public void shouldUpdateCityWithoutReadWhenVersionMatches() {
+        // Arrange
+        Country country = Country.builder().id(1L).name("Turkey").code("TR").build();
+        City cityDetails = City.builder().name("Ankara").country(Country.builder().code("TR").build()).build();
+        Mockito.when(countryCache.findByCode("TR")).thenReturn(Optional.of(country));
+        Mockito.when(cityRepository.updateIfVersion(5L, 2L, "Ankara", 1L, null, null)).thenReturn(List.of(ref(5L, 4L)));
+
+        // Act
+        City result = cityService.updateCity(5L, 2L, cityDetails);
+
+        // Assert
+        assertEquals(3L, result.getVersion(), "Version should be incremented");
+        assertEquals(country, result.getCountry(), "Country should be resolved");
+        Mockito.verify(cityRepository, Mockito.never()).findById(5L);
+        Mockito.verify(cityNameIndex, Mockito.times(1)).put(result);
+        Mockito.verify(countryRepository, Mockito.times(1)).addToCityCount(4L, -1);
+        Mockito.verify(countryRepository, Mockito.times(1)).addToCityCount(1L, 1);
+    }
+
+    @Test
+    public void shouldThrowNotFoundWhenVersionedUpdateMatchesNoCity() {
+        // Arrange
+        City cityDetails = City.builder().name("Ankara").build();
+        Mockito.when(cityRepository.updateIfVersion(5L, 2L, "Ankara", null, null, null)).thenReturn(List.of());
+        Mockito.when(cityRepository.existsById(5L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> cityService.updateCity(5L, 2L, cityDetails));
+        assertEquals("City not found with id 5", exception.getMessage());
+    }
+
+    @Test
+    public void shouldDeleteCitiesByIdsAndDropThemFromIndex() {
+        // Arrange
+        List<Long> ids = List.of(1L, 2L, 3L);
+        Mockito.when(cityRepository.deleteByIdInReturningIds(ids)).thenReturn(List.of(ref(1L, 9L), ref(3L, 9L)));
+
+        // Act
+        int deleted = cityService.deleteCities(ids);
+
+        // Assert
+        assertEquals(2, deleted, "Only existing cities should be counted");
+        Mockito.verify(cityNameIndex, Mockito.times(1)).removeAll(List.of(1L, 3L));
+        Mockito.verify(countryRepository, Mockito.times(1)).addToCityCount(9L, -2);
+    }
+
+    @Test
+    public void shouldRejectTooManyIdsWhenDeleteCities() {
+        // Arrange
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, 1001).boxed().toList();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> cityService.deleteCities(ids));
+        Mockito.verifyNoInteractions(cityRepository);
+    }
+
+    private static CityCountryRef ref(Long id, Long countryId) {
+        return new CityCountryRef() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getCountryId() {
+                return countryId;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return null;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return null;
+            }
+        };
+    }
+
     @AfterEach
     void tearDown() {
 
@@ -0,0 +1,77 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Dto.CountryCacheStats;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountryCacheTest {
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    private CountryCache countryCache;
+
+    private Country country;
+
+    @BeforeEach
+    void setUp() {
+        countryCache = new CountryCache(countryRepository, 100, Duration.ofMinutes(10));
+
+        country = Country.builder()
+                .id(1L)
+                .name("Turkey")
+                .code("TR")
+                .build();
+    }
+
+    @Test
+    void shouldLoadCountryOnceAndServeFromCache() {
+        Mockito.when(countryRepository.findByCode("TR")).thenReturn(Optional.of(country));
+
+        assertEquals(Optional.of(country), countryCache.findByCode("TR"));
+        assertEquals(Optional.of(country), countryCache.findByCode("TR"));
+
+        CountryCacheStats stats = countryCache.stats();
+        assertEquals(1, stats.hits(), "Second lookup should be a hit");
+        assertEquals(1, stats.misses(), "First lookup should be a miss");
+
+        Mockito.verify(countryRepository, Mockito.times(1)).findByCode("TR");
+    }
+
+    @Test
+    void shouldNotCacheMissingCountry() {
+        Mockito.when(countryRepository.findById(44L)).thenReturn(Optional.empty());
+
+        assertTrue(countryCache.findById(44L).isEmpty());
+        assertTrue(countryCache.findById(44L).isEmpty());
+
+        Mockito.verify(countryRepository, Mockito.times(2)).findById(44L);
+    }
+
+    @Test
+    void shouldReloadCountryAfterInvalidate() {
+        Mockito.when(countryRepository.findById(1L)).thenReturn(Optional.of(country));
+        Mockito.when(countryRepository.findByCode("TR")).thenReturn(Optional.of(country));
+
+        countryCache.findById(1L);
+        countryCache.findByCode("TR");
+        countryCache.invalidate(1L);
+        countryCache.findById(1L);
+        countryCache.findByCode("TR");
+
+        Mockito.verify(countryRepository, Mockito.times(2)).findById(1L);
+        Mockito.verify(countryRepository, Mockito.times(2)).findByCode("TR");
+    }
+}
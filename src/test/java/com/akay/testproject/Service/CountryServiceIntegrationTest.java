@@ -1,15 +1,22 @@
 package com.akay.testproject.Service;
 
 
+import com.akay.testproject.Dto.CountrySearchCriteria;
+import com.akay.testproject.Dto.CursorPage;
+import com.akay.testproject.Entity.City;
 import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CityRepository;
 import com.akay.testproject.Repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 
@@ -23,9 +30,18 @@ public class CountryServiceIntegrationTest {
     @Autowired
     private  CountryRepository countryRepository;
 
+    @Autowired
+    private CityRepository cityRepository;
+
     @Autowired
     private CountryService countryService;
 
+    @BeforeEach
+    void setUp() {
+        cityRepository.deleteAll();
+        countryRepository.deleteAll();
+    }
+
     @Test
     public void shouldCreateCountryWithCountry() {
         Country country = Country.builder()
@@ -40,6 +56,39 @@ public class CountryServiceIntegrationTest {
         assertThat(createdCountry.getCode()).isEqualTo(country.getCode());
     }
 
+    @Test
+    public void shouldDeleteCountryTogetherWithItsCities() {
+        Country turkey = countryService.createCountry(Country.builder().name("Turkiye").code("TR").build());
+        Country germany = countryService.createCountry(Country.builder().name("Germany").code("DE").build());
+        cityRepository.saveAll(List.of(
+                City.builder().name("Istanbul").country(turkey).build(),
+                City.builder().name("Ankara").country(turkey).build(),
+                City.builder().name("Berlin").country(germany).build()));
+
+        int deletedCities = countryService.deleteCountryWithCities(turkey.getId());
+
+        assertThat(deletedCities).isEqualTo(2);
+        assertThat(countryRepository.findById(turkey.getId())).isEmpty();
+        assertThat(cityRepository.findAll()).extracting(City::getName).containsExactly("Berlin");
+    }
+
+    @Test
+    public void shouldRejectStaleVersionWhenUpdateCountry() {
+        Country country = countryService.createCountry(Country.builder().name("Turkiye").code("TR").build());
+        Long version = country.getVersion();
+
+        Country updated = countryService.updateCountry(country.getId(), version,
+                Country.builder().name("Turkey").code("TR").build());
+
+        assertThat(updated.getVersion()).isEqualTo(version + 1);
+        assertThat(countryRepository.findById(country.getId())).get()
+                .extracting(Country::getName, Country::getVersion)
+                .containsExactly("Turkey", version + 1);
+        assertThatThrownBy(() -> countryService.updateCountry(country.getId(), version,
+                Country.builder().name("Turkiye").code("TR").build()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
     @Test
     public void shouldUpdateCountryWithIdAndCountryDetails() {
         Country country = Country.builder()
@@ -104,6 +153,65 @@ public class CountryServiceIntegrationTest {
         assertThat(page.getContent().size()).isEqualTo(3);
     }
 
+    @Test
+    public void shouldFindCountriesByCode() {
+        countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+        countryRepository.save(Country.builder().name("Germany").code("DE").build());
+
+        assertThat(countryService.findByCode("TR")).map(Country::getName).contains("Turkey");
+        assertThat(countryService.findByCode("XX")).isEmpty();
+        assertThat(countryService.findAllByCode(List.of("DE", "XX", "TR")))
+                .extracting(Country::getCode)
+                .containsExactly("DE", "TR");
+    }
+
+    @Test
+    public void shouldSearchCountriesByNamePrefixAndIdRange() {
+        Country turkey = countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+        countryRepository.save(Country.builder().name("Tunisia").code("TN").build());
+        countryRepository.save(Country.builder().name("Germany").code("DE").build());
+
+        Page<Country> page = countryService.search(new CountrySearchCriteria(null, "Tu", turkey.getId(), null),
+                PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(page.getContent()).extracting(Country::getCode).containsExactly("TR", "TN");
+        assertThat(countryService.search(new CountrySearchCriteria("DE", null, null, null), PageRequest.of(0, 10)))
+                .extracting(Country::getName)
+                .containsExactly("Germany");
+    }
+
+    @Test
+    public void shouldScrollCountriesByIdWithCursor() {
+        countryRepository.deleteAll();
+
+        countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+        countryRepository.save(Country.builder().name("Germany").code("DE").build());
+        countryRepository.save(Country.builder().name("France").code("FR").build());
+
+        CursorPage<Country> firstPage = countryService.scroll(null, KeysetOrder.ID, 2);
+        CursorPage<Country> secondPage = countryService.scroll(firstPage.nextCursor(), KeysetOrder.ID, 2);
+
+        assertThat(firstPage.content()).extracting(Country::getCode).containsExactly("TR", "DE");
+        assertThat(secondPage.content()).extracting(Country::getCode).containsExactly("FR");
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
+    @Test
+    public void shouldScrollPastCountriesWithoutNameInNameOrder() {
+        countryRepository.deleteAll();
+
+        Country unnamed = countryRepository.save(Country.builder().code("XX").build());
+        countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+        countryRepository.save(Country.builder().name("Germany").code("DE").build());
+
+        CursorPage<Country> firstPage = countryService.scroll(null, KeysetOrder.NAME, 2);
+        CursorPage<Country> secondPage = countryService.scroll(firstPage.nextCursor(), KeysetOrder.NAME, 2);
+
+        assertThat(firstPage.content()).extracting(Country::getCode).containsExactly("DE", "TR");
+        assertThat(secondPage.content()).extracting(Country::getId).containsExactly(unnamed.getId());
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
 
 
 }
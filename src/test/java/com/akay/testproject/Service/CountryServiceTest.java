@@ -1,7 +1,9 @@
 package com.akay.testproject.Service;
 
+import com.akay.testproject.Dto.BulkResult;
 import com.akay.testproject.Entity.Country;
 import com.akay.testproject.Repository.CountryRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,13 +14,19 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -30,13 +38,29 @@ import static org.mockito.Mockito.verify;
 class CountryServiceTest {
     @Mock
     private CountryRepository countryRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CountryCache countryCache;
+
+    @Mock
+    private CityService cityService;
+
+    @Mock
+    private ChangeLog changeLog;
+
     @InjectMocks
     private CountryService countryService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        countryService = new CountryService(countryRepository);
+        countryService = new CountryService(countryRepository, new ChunkedWriter(new TransactionTemplate(transactionManager), entityManager, 2),
+                countryCache, cityService, changeLog, transactionManager);
     }
 
     @Test
@@ -111,6 +135,7 @@ class CountryServiceTest {
         countryService.deleteCountry(id);
         // Assert
         verify(countryRepository, times(1)).deleteById(id);
+        verify(countryCache, times(1)).invalidate(id);
     }
 
 
@@ -139,6 +164,106 @@ class CountryServiceTest {
         verify(countryRepository, times(1)).findAll(pageable);
     }
 
+    @Test
+    public void shouldCreateCountriesInChunks() {
+        // Arrange
+        List<Country> countries = List.of(
+                Country.builder().name("Turkey").code("TR").build(),
+                Country.builder().name("Germany").code("DE").build(),
+                Country.builder().name("France").code("FR").build()
+        );
+
+        // Act
+        BulkResult result = countryService.createCountries(countries);
+
+        // Assert
+        assertEquals(3, result.total(), "Total should match");
+        assertEquals(3, result.written(), "All countries should be written");
+        assertEquals(2, result.chunks().size(), "Countries should be split into two chunks");
+
+        verify(countryRepository, times(1)).saveAll(countries.subList(0, 2));
+        verify(countryRepository, times(1)).saveAll(countries.subList(2, 3));
+    }
+
+    @Test
+    public void shouldFindCountriesByCodeInRequestOrder() {
+        // Arrange
+        Country turkey = Country.builder().id(1L).name("Turkey").code("TR").build();
+        Country germany = Country.builder().id(2L).name("Germany").code("DE").build();
+        List<String> codes = List.of("DE", "XX", "TR", "DE");
+
+        Mockito.when(countryCache.findAllByCode(codes)).thenReturn(Map.of("TR", turkey, "DE", germany));
+
+        // Act
+        List<Country> result = countryService.findAllByCode(codes);
+
+        // Assert
+        assertEquals(List.of(germany, turkey), result, "Known codes should be returned once in request order");
+    }
+
+    @Test
+    public void shouldUpdateCountryWithoutReadWhenVersionMatches() {
+        // Arrange
+        Country details = Country.builder().name("Turkiye").code("TR").build();
+        Mockito.when(countryRepository.updateIfVersion(1L, 3L, "Turkiye", "TR")).thenReturn(1);
+
+        // Act
+        Country result = countryService.updateCountry(1L, 3L, details);
+
+        // Assert
+        assertEquals(4L, result.getVersion(), "Version should be incremented");
+        verify(countryRepository, Mockito.never()).findById(1L);
+        verify(countryCache, times(1)).invalidate(1L);
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnlyAfterCommit() {
+        // Arrange
+        Country details = Country.builder().name("Turkiye").code("TR").build();
+        Mockito.when(countryRepository.updateIfVersion(1L, 3L, "Turkiye", "TR")).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // Act
+            countryService.updateCountry(1L, 3L, details);
+
+            // Assert
+            verify(countryCache, Mockito.never()).invalidate(1L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(countryCache, times(1)).invalidate(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void shouldThrowConflictWhenCountryVersionDoesNotMatch() {
+        // Arrange
+        Country details = Country.builder().name("Turkiye").code("TR").build();
+        Mockito.when(countryRepository.updateIfVersion(1L, 3L, "Turkiye", "TR")).thenReturn(0);
+        Mockito.when(countryRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> countryService.updateCountry(1L, 3L, details))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(countryCache, Mockito.never()).invalidate(1L);
+    }
+
+    @Test
+    public void shouldDeleteCountryWithCitiesUsingBulkStatements() {
+        // Arrange
+        Mockito.when(cityService.deleteCitiesOfCountry(1L)).thenReturn(100_000);
+        Mockito.when(countryRepository.bulkDeleteById(1L)).thenReturn(1);
+
+        // Act
+        int deletedCities = countryService.deleteCountryWithCities(1L);
+
+        // Assert
+        assertEquals(100_000, deletedCities);
+        verify(countryRepository, Mockito.never()).findById(1L);
+        verify(countryCache, times(1)).invalidate(1L);
+    }
+
     @AfterEach
     void tearDown() {
         countryRepository.deleteAll();
@@ -0,0 +1,85 @@
+package com.akay.testproject.Service;
+
+import com.akay.testproject.Entity.City;
+import com.akay.testproject.Entity.Country;
+import com.akay.testproject.Repository.CityRepository;
+import com.akay.testproject.Repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TableVersionsIntegrationTest {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private CityService cityService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Country country;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository.deleteAll();
+        countryRepository.deleteAll();
+        country = countryRepository.save(Country.builder().name("Turkey").code("TR").build());
+    }
+
+    @Test
+    void shouldBumpOncePerTransactionForEveryWriter() {
+        TableVersions.Validators before = tableVersions.current(TableVersions.Table.CITIES);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbc.update("insert into cities (id, name, country_id) values (nextval('cities_seq'), 'Bursa', ?)", country.getId());
+            jdbc.update("update cities set name = 'Prusa' where name = 'Bursa'");
+        });
+        TableVersions.Validators after = tableVersions.current(TableVersions.Table.CITIES);
+
+        assertThat(Long.parseLong(after.tag())).isEqualTo(Long.parseLong(before.tag()) + 1);
+        assertThat(after.lastModified()).isAfter(before.lastModified());
+    }
+
+    @Test
+    void shouldMoveLastModifiedForwardByAtLeastASecondPerVersion() {
+        TableVersions.Validators first = tableVersions.current(TableVersions.Table.CITIES);
+        cityService.createCity(City.builder().name("Izmir").country(country).build());
+        TableVersions.Validators second = tableVersions.current(TableVersions.Table.CITIES);
+        cityService.createCity(City.builder().name("Ankara").country(country).build());
+        TableVersions.Validators third = tableVersions.current(TableVersions.Table.CITIES);
+
+        assertThat(second.lastModified()).isAfterOrEqualTo(first.lastModified().plusSeconds(1));
+        assertThat(third.lastModified()).isAfterOrEqualTo(second.lastModified().plusSeconds(1));
+        assertThat(third.lastModified().getNano()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreRolledBackWritesAndCityCountUpdates() {
+        String before = tableVersions.current(TableVersions.Table.CITIES, TableVersions.Table.COUNTRIES).tag();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbc.update("insert into cities (id, name, country_id) values (nextval('cities_seq'), 'Bursa', ?)", country.getId());
+            status.setRollbackOnly();
+        });
+        jdbc.update("update countries set city_count = city_count + 1 where id = ?", country.getId());
+
+        assertThat(tableVersions.current(TableVersions.Table.CITIES, TableVersions.Table.COUNTRIES).tag()).isEqualTo(before);
+    }
+}